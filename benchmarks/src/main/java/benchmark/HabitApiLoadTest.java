@@ -0,0 +1,199 @@
+package benchmark;
+
+import model.Habit;
+import repository.FileHabitRepository;
+import repository.HabitRepository;
+import server.HabitApiServer;
+import service.HabitService;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public final class HabitApiLoadTest {
+    private static final int DEFAULT_CLIENTS = 2000;
+    private static final int DEFAULT_SECONDS = 20;
+    private static final int DEFAULT_HABITS = 1000;
+    private static final int WARMUP_SECONDS = 5;
+    private static final long WRITE_BEHIND_MILLIS = 1000;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final int habitCount;
+
+    private HabitApiLoadTest(HttpClient client, URI baseUri, int habitCount) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.habitCount = habitCount;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int habitCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HABITS;
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(clients));
+        }
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        Path directory = Files.createTempDirectory("habit-api-load");
+        Path dataFile = directory.resolve("habits.json");
+        HabitRepository repository = new FileHabitRepository(dataFile.toString(), true);
+        List<Habit> habits = HabitDataGenerator.generate(habitCount, 1, 0.7, 42);
+        repository.saveHabits(habits);
+
+        HabitService habitService = new HabitService(repository, WRITE_BEHIND_MILLIS);
+        habitService.loadHabits();
+        HabitApiServer server = new HabitApiServer(habitService,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(clientExecutor)
+            .build();
+
+        try {
+            HabitApiLoadTest loadTest = new HabitApiLoadTest(client,
+                URI.create("http://127.0.0.1:" + server.getPort()), habitCount);
+            System.out.println("Warming up with " + Math.min(clients, 200) + " clients...");
+            loadTest.run(Math.min(clients, 200), WARMUP_SECONDS);
+            System.out.println("Running " + clients + " clients for " + seconds + "s against "
+                + habitCount + " habits...");
+            Result result = loadTest.run(clients, seconds);
+            result.print(seconds);
+        } finally {
+            server.stop();
+            clientExecutor.shutdownNow();
+            habitService.shutdown();
+        }
+    }
+
+    private Result run(int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Worker> workers = new ArrayList<>(clients);
+        List<CompletableFuture<Void>> done = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Worker worker = new Worker(new Random(i), deadline);
+            workers.add(worker);
+            done.add(worker.finished);
+            worker.next();
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).get(seconds + 60L, TimeUnit.SECONDS);
+
+        Result result = new Result();
+        for (Worker worker : workers) {
+            result.add(worker);
+        }
+        return result;
+    }
+
+    private HttpRequest nextRequest(Random random) {
+        int roll = random.nextInt(100);
+        int id = 1 + random.nextInt(habitCount);
+        if (roll < 60) {
+            return HttpRequest.newBuilder(baseUri.resolve("/habits/" + id)).GET().build();
+        }
+        if (roll < 80) {
+            return HttpRequest.newBuilder(baseUri.resolve("/stats")).GET().build();
+        }
+        if (roll < 90) {
+            return HttpRequest.newBuilder(baseUri.resolve("/habits?q=" + id)).GET().build();
+        }
+        return HttpRequest.newBuilder(baseUri.resolve("/habits/" + id + "/completions"))
+            .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private final class Worker {
+        private final Random random;
+        private final long deadline;
+        private final CompletableFuture<Void> finished;
+        private long[] latencies;
+        private int count;
+        private int errors;
+
+        private Worker(Random random, long deadline) {
+            this.random = random;
+            this.deadline = deadline;
+            this.finished = new CompletableFuture<>();
+            this.latencies = new long[256];
+        }
+
+        private void next() {
+            if (System.nanoTime() >= deadline) {
+                finished.complete(null);
+                return;
+            }
+
+            long start = System.nanoTime();
+            client.sendAsync(nextRequest(random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (error != null || response.statusCode() >= 500) {
+                        errors++;
+                    } else {
+                        record(elapsed);
+                    }
+                    next();
+                });
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Result {
+        private long[] latencies = new long[0];
+        private int count;
+        private int errors;
+
+        private void add(Worker worker) {
+            if (count + worker.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + worker.count));
+            }
+            System.arraycopy(worker.latencies, 0, latencies, count, worker.count);
+            count += worker.count;
+            errors += worker.errors;
+        }
+
+        private void print(int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("requests=%d errors=%d rps=%.0f%n", count, errors, count / (double) seconds);
+            System.out.printf("p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitBenchmark {
+    private static final int DAY_MASK = 1023;
+
+    @Param({"1", "5", "10"})
+    private int years;
+
+    private Habit habit;
+    private LocalDate today;
+    private LocalDate[] historyDays;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        habit = HabitDataGenerator.generate(1, years, 0.7, 42).get(0);
+        today = LocalDate.now();
+        habit.markCompleted(today);
+
+        Random random = new Random(7);
+        historyDays = new LocalDate[DAY_MASK + 1];
+        int historyLength = years * 365;
+        for (int i = 0; i < historyDays.length; i++) {
+            historyDays[i] = today.minusDays(1 + random.nextInt(historyLength));
+        }
+    }
+
+    @Benchmark
+    public boolean markAndUnmarkCompleted() {
+        LocalDate day = historyDays[cursor++ & DAY_MASK];
+        boolean marked = habit.markCompleted(day);
+        habit.unmarkCompleted(day);
+        return marked;
+    }
+
+    @Benchmark
+    public boolean markCompletedAlreadyDone() {
+        return habit.markCompleted(today);
+    }
+
+    @Benchmark
+    public int calculateCurrentStreak() {
+        return habit.calculateCurrentStreak(today);
+    }
+
+    @Benchmark
+    public int calculateLongestStreak() {
+        return habit.calculateLongestStreak();
+    }
+
+    @Benchmark
+    public double getCompletionRate() {
+        return habit.getCompletionRate(today);
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark;
+
+import model.Habit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class HabitDataGenerator {
+    private HabitDataGenerator() {
+    }
+
+    public static List<Habit> generate(int habitCount, int years, double completionRatio, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        LocalDate createdDate = today.minusYears(years);
+
+        List<Habit> habits = new ArrayList<>(habitCount);
+        for (int id = 1; id <= habitCount; id++) {
+            Habit habit = new Habit(id, "Habit " + id, createdDate, null);
+            for (LocalDate day = createdDate; !day.isAfter(today); day = day.plusDays(1)) {
+                if (random.nextDouble() < completionRatio) {
+                    habit.markCompleted(day);
+                }
+            }
+            habits.add(habit);
+        }
+        return habits;
+    }
+}
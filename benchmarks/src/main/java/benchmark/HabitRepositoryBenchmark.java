@@ -0,0 +1,78 @@
+package benchmark;
+
+import model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.FileHabitRepository;
+import repository.HabitRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HabitRepositoryBenchmark {
+    @Param({"100", "1000", "5000"})
+    private int habitCount;
+
+    @Param({"1", "5"})
+    private int years;
+
+    @Param({"true", "false"})
+    private boolean prettyPrint;
+
+    private Path loadFile;
+    private Path saveFile;
+    private FileHabitRepository loadRepository;
+    private FileHabitRepository saveRepository;
+    private List<Habit> habits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        habits = HabitDataGenerator.generate(habitCount, years, 0.7, 42);
+
+        loadFile = Files.createTempFile("habits-load-bench", ".json");
+        loadRepository = new FileHabitRepository(loadFile.toString());
+        loadRepository.setPrettyPrint(prettyPrint);
+        loadRepository.saveHabits(habits);
+
+        saveFile = Files.createTempFile("habits-save-bench", ".json");
+        saveRepository = new FileHabitRepository(saveFile.toString());
+        saveRepository.setPrettyPrint(prettyPrint);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(loadFile);
+        Files.deleteIfExists(saveFile);
+    }
+
+    @Benchmark
+    public HabitRepository.LoadResult loadHabits() {
+        return loadRepository.loadHabits();
+    }
+
+    @Benchmark
+    public Path saveHabits() throws IOException {
+        saveRepository.saveHabits(habits);
+        return saveFile;
+    }
+}
@@ -0,0 +1,93 @@
+package benchmark;
+
+import model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.FileHabitRepository;
+import repository.HabitRepository;
+import service.HabitService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HabitServiceBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int habitCount;
+
+    @Param({"1", "5"})
+    private int years;
+
+    private Path dataFile;
+    private HabitService habitService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFile = Files.createTempFile("habits-service-bench", ".json");
+        HabitRepository repository = new FileHabitRepository(dataFile.toString());
+        List<Habit> habits = HabitDataGenerator.generate(habitCount, years, 0.7, 42);
+        repository.saveHabits(habits);
+
+        habitService = new HabitService(repository);
+        habitService.loadHabits();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+
+    @Benchmark
+    public int getHabitsCompletedTodayCount() {
+        return habitService.getHabitsCompletedTodayCount();
+    }
+
+    @Benchmark
+    public double getAverageCompletionPercentage() {
+        return habitService.getAverageCompletionPercentage();
+    }
+
+    @Benchmark
+    public int getTotalHabits() {
+        return habitService.getTotalHabits();
+    }
+
+    @Benchmark
+    public List<Habit> getAllHabits() {
+        return habitService.getAllHabits();
+    }
+
+    @Benchmark
+    public Habit findHabitById() {
+        return habitService.findHabitById(habitCount / 2);
+    }
+
+    @Benchmark
+    public List<Habit> searchHabitsSelective() {
+        return habitService.searchHabits(String.valueOf(habitCount / 2));
+    }
+
+    @Benchmark
+    public List<Habit> searchHabitsBroad() {
+        return habitService.searchHabits("habit 1");
+    }
+}
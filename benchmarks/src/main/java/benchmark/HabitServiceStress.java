@@ -0,0 +1,260 @@
+package benchmark;
+
+import model.Habit;
+import repository.FileHabitRepository;
+import service.HabitService;
+import service.ServiceResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class HabitServiceStress {
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_HABITS_PER_THREAD = 500;
+    private static final int SHARED_NAMES = 200;
+    private static final long WRITE_BEHIND_MILLIS = 5;
+
+    private final int threads;
+    private final int habitsPerThread;
+    private final List<String> failures;
+
+    private HabitServiceStress(int threads, int habitsPerThread) {
+        this.threads = threads;
+        this.habitsPerThread = habitsPerThread;
+        this.failures = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        int habitsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HABITS_PER_THREAD;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        HabitServiceStress stress = new HabitServiceStress(threads, habitsPerThread);
+        for (int round = 1; round <= rounds; round++) {
+            stress.runRound(round);
+        }
+
+        if (!stress.failures.isEmpty()) {
+            stress.failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("No lost updates in " + rounds + " rounds.");
+    }
+
+    private void runRound(int round) throws Exception {
+        Path directory = Files.createTempDirectory("habit-stress");
+        Path dataFile = directory.resolve("habits.json");
+        HabitService service = new HabitService(new FileHabitRepository(dataFile.toString(), true), WRITE_BEHIND_MILLIS);
+        service.loadHabits();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Future<Integer> reader = executor.submit(() -> readSnapshots(service, writing));
+        try {
+            long started = System.nanoTime();
+            int added = addConcurrently(service, executor);
+            List<Habit> habits = new ArrayList<>(service.getAllHabits());
+            int marked = markConcurrently(service, executor, habits);
+            int deleted = deleteWhileMarking(service, executor, habits);
+            writing.set(false);
+            int snapshotsRead = reader.get();
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            check(added == threads * habitsPerThread + SHARED_NAMES,
+                "round " + round + ": expected " + (threads * habitsPerThread + SHARED_NAMES) + " adds, got " + added);
+            check(marked == habits.size(),
+                "round " + round + ": expected " + habits.size() + " marks, got " + marked);
+            verifyState(round, service, added - deleted);
+
+            service.shutdown();
+            HabitService reloaded = new HabitService(new FileHabitRepository(dataFile.toString(), true));
+            reloaded.loadHabits();
+            verifyReload(round, service, reloaded);
+
+            System.out.printf("round %d: %d adds, %d marks, %d deletes, %d snapshot reads in %d ms%n",
+                round, added, marked, deleted, snapshotsRead, elapsedMillis);
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+            deleteDirectory(directory);
+        }
+    }
+
+    private int addConcurrently(HabitService service, ExecutorService executor) throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                Random random = new Random(thread);
+                int successes = 0;
+                for (int i = 0; i < habitsPerThread; i++) {
+                    successes += succeeded(service.addHabit("Habit " + thread + "-" + i));
+                    successes += succeeded(service.addHabit("Shared " + random.nextInt(SHARED_NAMES)));
+                }
+                for (int i = 0; i < SHARED_NAMES; i++) {
+                    successes += succeeded(service.addHabit("shared " + i));
+                }
+                return successes;
+            });
+        }
+        return sum(runTogether(executor, tasks));
+    }
+
+    private int markConcurrently(HabitService service, ExecutorService executor, List<Habit> habits) throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                List<Habit> order = new ArrayList<>(habits);
+                Collections.shuffle(order, new Random(thread));
+                int successes = 0;
+                for (Habit habit : order) {
+                    successes += succeeded(service.markHabitCompletedToday(habit.getId()));
+                    if (thread == 0 && habit.getId() % 7 == 0) {
+                        service.editHabit(habit.getId(), habit.getName() + " (renamed)");
+                    }
+                }
+                return successes;
+            });
+        }
+        return sum(runTogether(executor, tasks));
+    }
+
+    private int deleteWhileMarking(HabitService service, ExecutorService executor, List<Habit> habits)
+            throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                int deleted = 0;
+                for (int i = thread; i < habits.size(); i += threads * 3) {
+                    deleted += succeeded(service.deleteHabit(habits.get(i).getId()));
+                    service.markHabitCompletedToday(habits.get((i + 1) % habits.size()).getId());
+                }
+                return deleted;
+            });
+        }
+        return sum(runTogether(executor, tasks));
+    }
+
+    private int readSnapshots(HabitService service, AtomicBoolean writing) {
+        int reads = 0;
+        while (writing.get()) {
+            List<Habit> snapshot = service.getAllHabits();
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                Habit habit = snapshot.get(i);
+                if (!ids.add(habit.getId())) {
+                    failures.add("snapshot lists habit " + habit.getId() + " twice");
+                    return reads;
+                }
+            }
+            reads++;
+        }
+        return reads;
+    }
+
+    private void verifyState(int round, HabitService service, int expectedTotal) {
+        List<Habit> habits = service.getAllHabits();
+        LocalDate today = LocalDate.now();
+        int completedToday = 0;
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < habits.size(); i++) {
+            Habit habit = habits.get(i);
+            check(ids.add(habit.getId()), "round " + round + ": duplicate id " + habit.getId());
+            check(service.findHabitById(habit.getId()) == habit, "round " + round + ": index lost " + habit.getId());
+            if (i > 0) {
+                check(String.CASE_INSENSITIVE_ORDER.compare(habits.get(i - 1).getName(), habit.getName()) <= 0,
+                    "round " + round + ": list out of order at " + i);
+            }
+            if (habit.isCompletedOn(today)) {
+                completedToday++;
+            }
+        }
+
+        check(habits.size() == expectedTotal,
+            "round " + round + ": expected " + expectedTotal + " habits, got " + habits.size());
+        check(service.getTotalHabits() == expectedTotal,
+            "round " + round + ": total counter is " + service.getTotalHabits());
+        check(service.getHabitsCompletedTodayCount() == completedToday,
+            "round " + round + ": completed today counter is " + service.getHabitsCompletedTodayCount()
+                + ", expected " + completedToday);
+    }
+
+    private void verifyReload(int round, HabitService service, HabitService reloaded) {
+        List<Habit> expected = service.getAllHabits();
+        List<Habit> actual = reloaded.getAllHabits();
+        check(expected.size() == actual.size(),
+            "round " + round + ": reloaded " + actual.size() + " habits, expected " + expected.size());
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            Habit left = expected.get(i);
+            Habit right = actual.get(i);
+            boolean same = left.getId() == right.getId()
+                && left.getName().equals(right.getName())
+                && left.getCompletedDates().equals(right.getCompletedDates());
+            if (!same) {
+                check(false, "round " + round + ": reloaded habit " + right.getId() + " differs from " + left.getId());
+                return;
+            }
+        }
+    }
+
+    private List<Integer> runTogether(ExecutorService executor, List<Callable<Integer>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (Callable<Integer> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static int succeeded(ServiceResult result) {
+        return result.isSuccess() ? 1 : 0;
+    }
+
+    private static int sum(List<Integer> values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private void check(boolean condition, String message) {
+        if (!condition) {
+            failures.add(message);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
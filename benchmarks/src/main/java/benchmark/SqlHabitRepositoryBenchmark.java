@@ -0,0 +1,97 @@
+package benchmark;
+
+import model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.HabitRepository;
+import repository.JournalEntry;
+import repository.SqlHabitRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlHabitRepositoryBenchmark {
+    @Param({"1000", "5000"})
+    private int habitCount;
+
+    @Param({"1", "5"})
+    private int years;
+
+    private Path directory;
+    private SqlHabitRepository repository;
+    private List<Habit> habits;
+    private LocalDate today;
+    private int nextHabit;
+    private long nextDay;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        habits = HabitDataGenerator.generate(habitCount, years, 0.7, 42);
+        today = LocalDate.now();
+        directory = Files.createTempDirectory("habits-sql-bench");
+        repository = new SqlHabitRepository(directory.resolve("habits" + SqlHabitRepository.FILE_EXTENSION).toString());
+        repository.saveHabits(habits);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public HabitRepository.LoadResult loadHabits() {
+        return repository.loadHabits();
+    }
+
+    @Benchmark
+    public long markCompleted() throws IOException {
+        int id = habits.get(nextHabit++ % habits.size()).getId();
+        LocalDate date = today.plusDays(1 + nextDay++);
+        repository.recordChanges(List.of(JournalEntry.marked(id, date)), () -> habits);
+        return date.toEpochDay();
+    }
+
+    @Benchmark
+    public List<LocalDate> findLastThirtyDays() throws IOException {
+        int id = habits.get(nextHabit++ % habits.size()).getId();
+        return repository.findCompletions(id, today.minusDays(29), today);
+    }
+
+    @Benchmark
+    public int countLastYear() throws IOException {
+        int id = habits.get(nextHabit++ % habits.size()).getId();
+        return repository.countCompletions(id, today.minusYears(1), today);
+    }
+
+    @Benchmark
+    public int countCompletedToday() throws IOException {
+        return repository.countCompletionsOn(today);
+    }
+}
@@ -1,19 +1,151 @@
+import metrics.Metrics;
+import metrics.MetricsEndpoint;
+import repository.BinarySnapshotFormat;
+import repository.FileHabitRepository;
 import repository.HabitRepository;
+import repository.JsonSnapshotFormat;
+import repository.SnapshotConverter;
+import repository.SqlHabitRepository;
+import service.AsyncHabitService;
+import service.DayRolloverScheduler;
 import service.HabitService;
+import service.ProfileRegistry;
+import ui.EdtStallDetector;
 import ui.HabitTrackerFrame;
 
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final long SAVE_INTERVAL_MILLIS = 1000;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+    private static final String JSON_DATA_FILE = "data/habits.json";
+    private static final String BINARY_DATA_FILE = "data/habits.bin";
+    private static final String SQL_DATA_FILE = "data/habits" + SqlHabitRepository.FILE_EXTENSION;
+    private static final String PROFILE_DIRECTORY = "data/profiles/";
+
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            HabitRepository repository = new HabitRepository("data/habits.json");
-            HabitService service = new HabitService(repository);
-            service.loadHabits();
+        startMetricsEndpoint();
+        String format = System.getProperty("habittracker.format", "json");
+        boolean binary = "binary".equalsIgnoreCase(format) || "mapped".equalsIgnoreCase(format);
+        boolean sql = "sql".equalsIgnoreCase(format);
+        boolean journal = Boolean.getBoolean("habittracker.journal");
+        String profile = System.getProperty("habittracker.profile");
+
+        HabitService service;
+        ProfileRegistry registry;
+        DayRolloverScheduler dayRollover;
+        if (profile == null || profile.isBlank()) {
+            registry = null;
+            String dataFile = sql ? SQL_DATA_FILE : binary ? BINARY_DATA_FILE : JSON_DATA_FILE;
+            if (binary || sql) {
+                importJsonIfMissing(Path.of(dataFile));
+            }
+            service = new HabitService(createRepository(dataFile, format, journal), SAVE_INTERVAL_MILLIS);
+            dayRollover = new DayRolloverScheduler(service::getClock, service::rollOverDay);
+        } else {
+            String extension = sql ? SqlHabitRepository.FILE_EXTENSION
+                : binary ? BinarySnapshotFormat.FILE_EXTENSION : JsonSnapshotFormat.FILE_EXTENSION;
+            registry = new ProfileRegistry(
+                id -> createRepository(PROFILE_DIRECTORY + id + extension, format, journal), SAVE_INTERVAL_MILLIS);
+            service = registry.acquire(profile).getService();
+            dayRollover = null;
+        }
+
+        AsyncHabitService asyncService = new AsyncHabitService(service);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            asyncService.shutdown();
+            try {
+                if (!asyncService.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    System.err.println("A change was still running on exit and may not be saved.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (dayRollover != null) {
+                dayRollover.stop();
+            }
+            try {
+                if (registry != null) {
+                    registry.shutdown();
+                } else {
+                    service.shutdown();
+                }
+            } catch (IOException e) {
+                System.err.println("Could not save data on exit: " + e.getMessage());
+            }
+            writeMetricsFile();
+        }, "habit-save-on-exit"));
+
+        if (registry == null) {
+            asyncService.loadHabits().join();
+            dayRollover.start();
+        }
 
-            HabitTrackerFrame frame = new HabitTrackerFrame(service);
+        new EdtStallDetector().start();
+        SwingUtilities.invokeLater(() -> {
+            HabitTrackerFrame frame = new HabitTrackerFrame(asyncService);
             frame.setVisible(true);
             frame.showLoadWarningIfNeeded();
         });
     }
+
+    private static void startMetricsEndpoint() {
+        Integer port = Integer.getInteger("habittracker.metrics.port");
+        if (port == null) {
+            return;
+        }
+
+        try {
+            MetricsEndpoint endpoint = new MetricsEndpoint(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            endpoint.start();
+            System.out.println("Metrics at http://127.0.0.1:" + endpoint.getPort() + MetricsEndpoint.PATH);
+        } catch (IOException e) {
+            System.err.println("Could not start metrics endpoint: " + e.getMessage());
+        }
+    }
+
+    private static void writeMetricsFile() {
+        String metricsFile = System.getProperty("habittracker.metrics.file");
+        if (metricsFile == null || metricsFile.isBlank()) {
+            return;
+        }
+
+        try (Writer writer = Files.newBufferedWriter(Path.of(metricsFile), StandardCharsets.UTF_8)) {
+            Metrics.registry().writeText(writer);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    private static HabitRepository createRepository(String dataFile, String format, boolean journal) {
+        if ("sql".equalsIgnoreCase(format)) {
+            return new SqlHabitRepository(dataFile);
+        }
+        FileHabitRepository repository = "mapped".equalsIgnoreCase(format)
+            ? new FileHabitRepository(dataFile, journal, new BinarySnapshotFormat(true))
+            : new FileHabitRepository(dataFile, journal);
+        repository.setPrettyPrint(!Boolean.getBoolean("habittracker.compactJson"));
+        return repository;
+    }
+
+    private static void importJsonIfMissing(Path targetFile) {
+        Path jsonFile = Path.of(JSON_DATA_FILE);
+        if (Files.exists(targetFile) || Files.notExists(jsonFile)) {
+            return;
+        }
+
+        try {
+            SnapshotConverter.convert(jsonFile, targetFile);
+        } catch (IOException e) {
+            System.err.println("Could not import " + JSON_DATA_FILE + ": " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package cli;
+
+import model.Habit;
+import repository.HabitRepository;
+import service.CompletionExporter;
+import service.HabitService;
+import service.HabitSummary;
+import service.ServiceResult;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+public final class HabitCli {
+    public static final String DEFAULT_DATA_FILE = "data/habits.json";
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private final String dataFile;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Clock clock;
+
+    public HabitCli(String dataFile, PrintStream out, PrintStream err) {
+        this(dataFile, out, err, Clock.systemDefaultZone());
+    }
+
+    public HabitCli(String dataFile, PrintStream out, PrintStream err, Clock clock) {
+        this.dataFile = dataFile;
+        this.out = out;
+        this.err = err;
+        this.clock = clock;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String dataFile = System.getProperty("habittracker.data", DEFAULT_DATA_FILE);
+        int first = 0;
+        if (args.length >= 2 && args[0].equals("--data")) {
+            dataFile = args[1];
+            first = 2;
+        }
+
+        HabitCli cli = new HabitCli(dataFile, System.out, System.err);
+        int status = cli.run(Arrays.copyOfRange(args, first, args.length));
+        System.out.flush();
+        if (status != EXIT_OK) {
+            System.exit(status);
+        }
+    }
+
+    public int run(String[] args) throws IOException {
+        if (args.length == 0) {
+            return usage();
+        }
+
+        switch (args[0]) {
+            case "mark":
+                return args.length == 2 ? withService(service -> mark(service, args[1])) : usage();
+            case "list":
+                return args.length == 1 ? withService(this::list) : usage();
+            case "stats":
+                return args.length == 1 ? withService(this::stats) : usage();
+            case "export":
+                return args.length >= 2 ? export(args) : usage();
+            default:
+                return usage();
+        }
+    }
+
+    private int mark(HabitService service, String habitArgument) {
+        Habit habit = findHabit(service, habitArgument);
+        if (habit == null) {
+            err.println("Habit not found: " + habitArgument);
+            return EXIT_FAILED;
+        }
+
+        HabitSummary summary = service.summarizeHabit(habit.getId());
+        if (summary.isCompletedToday()) {
+            out.println("Already marked for today: " + summary.getName());
+            return EXIT_OK;
+        }
+
+        ServiceResult result = service.markHabitCompletedToday(habit.getId());
+        if (!result.isSuccess()) {
+            err.println(result.getMessage());
+            return EXIT_FAILED;
+        }
+        summary = service.summarizeHabit(habit.getId());
+        out.println("Marked complete for today: " + summary.getName() + " (streak " + summary.getCurrentStreak() + ")");
+        return EXIT_OK;
+    }
+
+    private int list(HabitService service) {
+        StringBuilder lines = new StringBuilder();
+        for (Habit habit : service.getAllHabits()) {
+            HabitSummary summary = service.summarizeHabit(habit.getId());
+            if (summary == null) {
+                continue;
+            }
+            lines.append(summary.getId()).append('\t')
+                .append(summary.isCompletedToday() ? "[x] " : "[ ] ")
+                .append(summary.getName()).append('\t')
+                .append("streak ").append(summary.getCurrentStreak()).append('\t')
+                .append(summary.getCompletionRate()).append("%\n");
+        }
+        out.print(lines);
+        return EXIT_OK;
+    }
+
+    private int stats(HabitService service) {
+        out.println("Total habits: " + service.getTotalHabits());
+        out.println("Completed today: " + service.getHabitsCompletedTodayCount());
+        out.println("Average completion: " + service.getAverageCompletionPercentage() + "%");
+        return EXIT_OK;
+    }
+
+    private int export(String[] args) throws IOException {
+        String[] exporterArgs = new String[args.length];
+        exporterArgs[0] = dataFile;
+        System.arraycopy(args, 1, exporterArgs, 1, args.length - 1);
+        CompletionExporter.main(exporterArgs);
+        return EXIT_OK;
+    }
+
+    private int withService(ToIntFunction<HabitService> command) throws IOException {
+        HabitRepository repository = HabitRepository.forPath(dataFile, Boolean.getBoolean("habittracker.journal"));
+        HabitService service = new HabitService(repository, 0, null, clock);
+        try {
+            service.loadHabits();
+            if (service.getLoadWarningMessage() != null) {
+                err.println(service.getLoadWarningMessage());
+                return EXIT_FAILED;
+            }
+            return command.applyAsInt(service);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static Habit findHabit(HabitService service, String habitArgument) {
+        String wanted = habitArgument.trim();
+        if (!wanted.isEmpty() && wanted.chars().allMatch(Character::isDigit)) {
+            try {
+                Habit byId = service.findHabitById(Integer.parseInt(wanted));
+                if (byId != null) {
+                    return byId;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return service.findHabitByName(wanted);
+    }
+
+    private int usage() {
+        err.println("Usage: HabitCli [--data <file>] <command>");
+        err.println("  mark <habit name or id>   mark a habit complete for today (not while the app has the file open)");
+        err.println("  list                      list habits with today's status and streak");
+        err.println("  stats                     print total, completed today and average completion");
+        err.println("  export <file> [--from yyyy-mm-dd] [--to yyyy-mm-dd] [--habit <name or id>]...");
+        return EXIT_USAGE;
+    }
+}
@@ -0,0 +1,30 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("habittracker.EdtStall")
+@Label("EDT Stall")
+@Description("The event dispatch thread did not run a queued task within the stall threshold")
+@Category("Habit Tracker")
+public class EdtStallEvent extends Event {
+    @Label("Stall")
+    @Timespan
+    private long stall;
+
+    @Label("Stalled At")
+    @Description("Top of the event dispatch thread stack while it was stalled")
+    private String stalledAt;
+
+    public void setStall(long stallNanos) {
+        this.stall = stallNanos;
+    }
+
+    public void setStalledAt(String stalledAt) {
+        this.stalledAt = stalledAt;
+    }
+}
@@ -0,0 +1,5 @@
+package metrics;
+
+public interface Histogram {
+    void record(long value);
+}
@@ -0,0 +1,19 @@
+package metrics;
+
+public final class Metrics {
+    private static volatile MetricsRegistry registry = new SimpleMetricsRegistry();
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry registry() {
+        return registry;
+    }
+
+    public static void setRegistry(MetricsRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("registry must not be null");
+        }
+        Metrics.registry = registry;
+    }
+}
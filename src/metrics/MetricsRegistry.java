@@ -0,0 +1,11 @@
+package metrics;
+
+import java.io.IOException;
+
+public interface MetricsRegistry {
+    Timer timer(String name, String help, String... labels);
+
+    Histogram histogram(String name, String help, String... labels);
+
+    void writeText(Appendable out) throws IOException;
+}
@@ -0,0 +1,40 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("habittracker.Repository")
+@Label("Repository Operation")
+@Description("A habit load, snapshot save or change append")
+@Category("Habit Tracker")
+public class RepositoryEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Backend")
+    private String backend;
+
+    @Label("Habits or Entries")
+    private int items;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    public RepositoryEvent(String operation, String backend) {
+        this.operation = operation;
+        this.backend = backend;
+    }
+
+    public void setItems(int items) {
+        this.items = items;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
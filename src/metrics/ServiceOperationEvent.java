@@ -0,0 +1,20 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("habittracker.ServiceOperation")
+@Label("Service Operation")
+@Description("One HabitService call, including lock waits")
+@Category("Habit Tracker")
+public class ServiceOperationEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    public ServiceOperationEvent(String operation) {
+        this.operation = operation;
+    }
+}
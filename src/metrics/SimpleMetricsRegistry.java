@@ -0,0 +1,164 @@
+package metrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SimpleMetricsRegistry implements MetricsRegistry {
+    private static final long[] DURATION_BOUNDS_NANOS = {
+        100_000L, 250_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L,
+        10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L,
+        1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+    private static final long[] SIZE_BOUNDS = {
+        1L << 10, 1L << 12, 1L << 14, 1L << 16, 1L << 18, 1L << 20,
+        1L << 22, 1L << 24, 1L << 26, 1L << 28, 1L << 30
+    };
+    private static final int NANOS_SCALE = 9;
+
+    private final Map<String, Family> families;
+
+    public SimpleMetricsRegistry() {
+        this.families = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Timer timer(String name, String help, String... labels) {
+        return family(name, help, true).series(labels);
+    }
+
+    @Override
+    public Histogram histogram(String name, String help, String... labels) {
+        return family(name, help, false).series(labels);
+    }
+
+    @Override
+    public void writeText(Appendable out) throws IOException {
+        for (Family family : new TreeMap<>(families).values()) {
+            family.write(out);
+        }
+    }
+
+    private Family family(String name, String help, boolean timer) {
+        Family family = families.computeIfAbsent(name, key -> new Family(key, help, timer));
+        if (family.timer != timer) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered with a different type.");
+        }
+        return family;
+    }
+
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs.");
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    text.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    text.append("\\n");
+                } else {
+                    text.append(ch);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+
+    private static String formatNumber(long value, int scale) {
+        return BigDecimal.valueOf(value, scale).stripTrailingZeros().toPlainString();
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final boolean timer;
+        private final long[] bounds;
+        private final Map<String, Series> series;
+
+        private Family(String name, String help, boolean timer) {
+            this.name = name;
+            this.help = help;
+            this.timer = timer;
+            this.bounds = timer ? DURATION_BOUNDS_NANOS : SIZE_BOUNDS;
+            this.series = new ConcurrentHashMap<>();
+        }
+
+        private Series series(String[] labels) {
+            return series.computeIfAbsent(labelText(labels), key -> new Series(bounds));
+        }
+
+        private void write(Appendable out) throws IOException {
+            int scale = timer ? NANOS_SCALE : 0;
+            out.append("# HELP ").append(name).append(' ').append(help.replace("\n", " ")).append('\n');
+            out.append("# TYPE ").append(name).append(" histogram\n");
+            for (Map.Entry<String, Series> entry : new TreeMap<>(series).entrySet()) {
+                String labels = entry.getKey();
+                String prefix = labels.isEmpty() ? "" : labels + ",";
+                Series values = entry.getValue();
+
+                long cumulative = 0;
+                for (int i = 0; i < bounds.length; i++) {
+                    cumulative += values.buckets[i].sum();
+                    out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                        .append(formatNumber(bounds[i], scale)).append("\"} ")
+                        .append(Long.toString(cumulative)).append('\n');
+                }
+                cumulative += values.buckets[bounds.length].sum();
+                out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ")
+                    .append(Long.toString(cumulative)).append('\n');
+
+                String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+                out.append(name).append("_sum").append(braces).append(' ')
+                    .append(formatNumber(values.sum.sum(), scale)).append('\n');
+                out.append(name).append("_count").append(braces).append(' ')
+                    .append(Long.toString(cumulative)).append('\n');
+            }
+        }
+    }
+
+    private static final class Series implements Timer, Histogram {
+        private final long[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder sum;
+
+        private Series(long[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+            this.sum = new LongAdder();
+        }
+
+        @Override
+        public void record(long value) {
+            int low = 0;
+            int high = bounds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (bounds[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            buckets[low].increment();
+            sum.add(value);
+        }
+    }
+}
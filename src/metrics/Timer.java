@@ -0,0 +1,11 @@
+package metrics;
+
+public interface Timer {
+    void record(long nanos);
+
+    default long stop(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        record(elapsed);
+        return elapsed;
+    }
+}
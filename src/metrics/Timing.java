@@ -0,0 +1,38 @@
+package metrics;
+
+import jdk.jfr.Event;
+
+public final class Timing<E extends Event> {
+    private final Timer timer;
+    private final E event;
+    private final long startNanos;
+    private boolean stopped;
+
+    private Timing(Timer timer, E event) {
+        this.timer = timer;
+        this.event = event;
+        this.startNanos = System.nanoTime();
+        event.begin();
+    }
+
+    public static <E extends Event> Timing<E> start(Timer timer, E event) {
+        return new Timing<>(timer, event);
+    }
+
+    public E getEvent() {
+        return event;
+    }
+
+    public long stop() {
+        if (stopped) {
+            return 0;
+        }
+        stopped = true;
+        long elapsed = timer.stop(startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+        return elapsed;
+    }
+}
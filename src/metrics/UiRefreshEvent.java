@@ -0,0 +1,20 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("habittracker.UiRefresh")
+@Label("UI Refresh")
+@Description("Time spent on the event dispatch thread refreshing pages")
+@Category("Habit Tracker")
+public class UiRefreshEvent extends Event {
+    @Label("Trigger")
+    private String trigger;
+
+    public UiRefreshEvent(String trigger) {
+        this.trigger = trigger;
+    }
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class CompletionSet {
+    public static final long NONE = Long.MIN_VALUE;
+
+    private long originEpochDay;
+    private BitSet days;
+    private int count;
+
+    public CompletionSet() {
+        this(Long.MAX_VALUE);
+    }
+
+    public CompletionSet(long originEpochDay) {
+        this.originEpochDay = originEpochDay;
+        this.days = new BitSet();
+    }
+
+    public CompletionSet copy() {
+        CompletionSet copy = new CompletionSet(originEpochDay);
+        copy.days = (BitSet) days.clone();
+        copy.count = count;
+        return copy;
+    }
+
+    public boolean add(long epochDay) {
+        if (count == 0) {
+            originEpochDay = Math.min(originEpochDay, epochDay);
+        } else if (epochDay < originEpochDay) {
+            rebase(epochDay);
+        }
+
+        int index = indexOf(epochDay);
+        if (days.get(index)) {
+            return false;
+        }
+        days.set(index);
+        count++;
+        return true;
+    }
+
+    public boolean remove(long epochDay) {
+        if (!contains(epochDay)) {
+            return false;
+        }
+        days.clear(indexOf(epochDay));
+        count--;
+        return true;
+    }
+
+    public boolean contains(long epochDay) {
+        if (count == 0 || epochDay < originEpochDay) {
+            return false;
+        }
+        long offset = epochDay - originEpochDay;
+        return offset <= Integer.MAX_VALUE && days.get((int) offset);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long firstDay() {
+        return originEpochDay + days.nextSetBit(0);
+    }
+
+    public long lastDay() {
+        return originEpochDay + days.length() - 1;
+    }
+
+    public long runStart(long epochDay) {
+        return originEpochDay + days.previousClearBit(indexOf(epochDay)) + 1;
+    }
+
+    public long runEnd(long epochDay) {
+        return originEpochDay + days.nextClearBit(indexOf(epochDay)) - 1;
+    }
+
+    public int runLengthEndingAt(long epochDay) {
+        if (!contains(epochDay)) {
+            return 0;
+        }
+        int index = indexOf(epochDay);
+        return index - days.previousClearBit(index);
+    }
+
+    public int longestRun() {
+        int longest = 0;
+        int start = days.nextSetBit(0);
+        while (start >= 0) {
+            int end = days.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = days.nextSetBit(end);
+        }
+        return longest;
+    }
+
+    public int countInRange(long fromEpochDay, long toEpochDay) {
+        if (count == 0 || toEpochDay < fromEpochDay || toEpochDay < originEpochDay) {
+            return 0;
+        }
+        long from = fromEpochDay <= originEpochDay ? 0 : fromEpochDay - originEpochDay;
+        long to = Math.min(toEpochDay - originEpochDay, days.length() - 1L);
+        if (from > to) {
+            return 0;
+        }
+        return days.get((int) from, (int) to + 1).cardinality();
+    }
+
+    public long nextDay(long epochDay) {
+        if (count == 0) {
+            return NONE;
+        }
+        long offset = epochDay <= originEpochDay ? 0 : epochDay - originEpochDay;
+        if (offset > Integer.MAX_VALUE) {
+            return NONE;
+        }
+        int index = days.nextSetBit((int) offset);
+        return index < 0 ? NONE : originEpochDay + index;
+    }
+
+    public byte[] toBitmap() {
+        int first = days.nextSetBit(0);
+        return first < 0 ? new byte[0] : days.get(first, days.length()).toByteArray();
+    }
+
+    public static CompletionSet fromBitmap(long firstDay, byte[] bitmap) {
+        CompletionSet set = new CompletionSet(firstDay);
+        set.days = BitSet.valueOf(bitmap);
+        set.count = set.days.cardinality();
+        return set;
+    }
+
+    public List<LocalDate> toLocalDates() {
+        List<LocalDate> dates = new ArrayList<>(count);
+        for (int i = days.nextSetBit(0); i >= 0; i = days.nextSetBit(i + 1)) {
+            dates.add(LocalDate.ofEpochDay(originEpochDay + i));
+        }
+        return dates;
+    }
+
+    private int indexOf(long epochDay) {
+        long offset = epochDay - originEpochDay;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Completion date is too far from the first completion.");
+        }
+        return (int) offset;
+    }
+
+    private void rebase(long newOriginEpochDay) {
+        int shift = Math.toIntExact(originEpochDay - newOriginEpochDay);
+        BitSet shifted = new BitSet(days.length() + shift);
+        for (int i = days.nextSetBit(0); i >= 0; i = days.nextSetBit(i + 1)) {
+            shifted.set(i + shift);
+        }
+        days = shifted;
+        originEpochDay = newOriginEpochDay;
+    }
+}
@@ -1,81 +1,156 @@
 package model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class Habit {
     private int id;
     private String name;
     private LocalDate createdDate;
-    private List<LocalDate> completedDates;
+    private CompletionSet completions;
+    private int longestStreak;
+    private boolean longestStreakStale;
+    private long lastCompletedDay;
+    private long tailRunStartDay;
+    private volatile Supplier<CompletionSet> completionLoader;
+    private int unloadedCompletedCount;
 
     public Habit() {
-        this.completedDates = new ArrayList<>();
+        this.completions = new CompletionSet();
     }
 
     public Habit(int id, String name, LocalDate createdDate, List<LocalDate> completedDates) {
         this.id = id;
         this.name = name;
         this.createdDate = createdDate;
-        this.completedDates = completedDates == null ? new ArrayList<>() : completedDates;
+        setCompletedDates(completedDates);
+    }
+
+    public Habit copy() {
+        Habit copy = new Habit();
+        copy.id = id;
+        copy.name = name;
+        copy.createdDate = createdDate;
+        Supplier<CompletionSet> loader = completionLoader;
+        copy.completions = loader == null ? completions.copy() : null;
+        copy.completionLoader = loader;
+        copy.unloadedCompletedCount = unloadedCompletedCount;
+        copy.longestStreak = longestStreak;
+        copy.longestStreakStale = longestStreakStale;
+        copy.lastCompletedDay = lastCompletedDay;
+        copy.tailRunStartDay = tailRunStartDay;
+        return copy;
     }
 
     public boolean markCompleted(LocalDate date) {
         if (date == null) {
             return false;
         }
-        if (!completedDates.contains(date)) {
-            completedDates.add(date);
-            Collections.sort(completedDates);
-            return true;
+        long day = date.toEpochDay();
+        if (!completions().add(day)) {
+            return false;
+        }
+
+        long runStart = completions().runStart(day);
+        long runEnd = completions().runEnd(day);
+        if (!longestStreakStale) {
+            longestStreak = (int) Math.max(longestStreak, runEnd - runStart + 1);
+        }
+        if (completions().size() == 1 || runEnd >= lastCompletedDay) {
+            lastCompletedDay = runEnd;
+            tailRunStartDay = runStart;
         }
-        return false;
+        return true;
     }
 
-    public int calculateCurrentStreak(LocalDate today) {
-        if (today == null || completedDates.isEmpty()) {
-            return 0;
+    public int markCompleted(Collection<LocalDate> dates) {
+        long[] days = new long[dates.size()];
+        int count = 0;
+        for (LocalDate date : dates) {
+            if (date != null) {
+                days[count++] = date.toEpochDay();
+            }
         }
+        Arrays.sort(days, 0, count);
 
-        int streak = 0;
-        LocalDate cursor = today;
-        while (completedDates.contains(cursor)) {
-            streak++;
-            cursor = cursor.minusDays(1);
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            if (completions().add(days[i])) {
+                added++;
+            }
         }
-        return streak;
+        if (added > 0) {
+            recalculateAggregates();
+        }
+        return added;
     }
 
-    public int calculateLongestStreak() {
-        if (completedDates.isEmpty()) {
-            return 0;
+    public boolean unmarkCompleted(LocalDate date) {
+        if (date == null || !completions().contains(date.toEpochDay())) {
+            return false;
         }
 
-        List<LocalDate> sorted = new ArrayList<>(completedDates);
-        Collections.sort(sorted);
-
-        int longest = 1;
-        int current = 1;
+        long day = date.toEpochDay();
+        long runStart = completions().runStart(day);
+        long runEnd = completions().runEnd(day);
+        completions().remove(day);
 
-        for (int i = 1; i < sorted.size(); i++) {
-            LocalDate previous = sorted.get(i - 1);
-            LocalDate currentDate = sorted.get(i);
+        if (runEnd - runStart + 1 == longestStreak) {
+            longestStreakStale = true;
+        }
+        if (completions().isEmpty()) {
+            lastCompletedDay = 0;
+            tailRunStartDay = 0;
+        } else if (day == lastCompletedDay) {
+            lastCompletedDay = completions().lastDay();
+            tailRunStartDay = completions().runStart(lastCompletedDay);
+        } else if (day >= tailRunStartDay) {
+            tailRunStartDay = day + 1;
+        }
+        return true;
+    }
 
-            if (previous.plusDays(1).equals(currentDate)) {
-                current++;
-            } else {
-                current = 1;
-            }
+    public boolean isCompletedOn(LocalDate date) {
+        if (date == null || getCompletedCount() == 0) {
+            return false;
+        }
+        long day = date.toEpochDay();
+        if (day > lastCompletedDay) {
+            return false;
+        }
+        if (day >= tailRunStartDay) {
+            return true;
+        }
+        return completions().contains(day);
+    }
 
-            if (current > longest) {
-                longest = current;
-            }
+    public int calculateCurrentStreak(LocalDate today) {
+        if (today == null || getCompletedCount() == 0) {
+            return 0;
         }
+        long day = today.toEpochDay();
+        if (day == lastCompletedDay) {
+            return (int) (lastCompletedDay - tailRunStartDay + 1);
+        }
+        if (day > lastCompletedDay) {
+            return 0;
+        }
+        return completions().runLengthEndingAt(day);
+    }
 
-        return longest;
+    public int calculateLongestStreak() {
+        if (longestStreakStale) {
+            longestStreak = completions().longestRun();
+            longestStreakStale = false;
+        }
+        return longestStreak;
     }
 
     public double getCompletionRate(LocalDate today) {
@@ -88,7 +163,7 @@ public class Habit {
             return 0.0;
         }
 
-        double rawRate = (completedDates.size() * 100.0) / totalDays;
+        double rawRate = (getCompletedCount() * 100.0) / totalDays;
         return Math.round(rawRate * 100.0) / 100.0;
     }
 
@@ -117,14 +192,79 @@ public class Habit {
     }
 
     public List<LocalDate> getCompletedDates() {
-        if (completedDates == null) {
-            completedDates = new ArrayList<>();
-        }
-        return completedDates;
+        return Collections.unmodifiableList(completions().toLocalDates());
     }
 
     public void setCompletedDates(List<LocalDate> completedDates) {
-        this.completedDates = completedDates == null ? new ArrayList<>() : completedDates;
+        completions = createdDate == null ? new CompletionSet() : new CompletionSet(createdDate.toEpochDay());
+        completionLoader = null;
+        if (completedDates != null) {
+            for (LocalDate date : completedDates) {
+                if (date != null) {
+                    completions().add(date.toEpochDay());
+                }
+            }
+        }
+        recalculateAggregates();
+    }
+
+    @JsonIgnore
+    public int getCompletedCount() {
+        return completionLoader == null ? completions.size() : unloadedCompletedCount;
+    }
+
+    @JsonIgnore
+    public CompletionSet getCompletions() {
+        return completions();
+    }
+
+    @JsonIgnore
+    public CompletionSet readCompletions() {
+        Supplier<CompletionSet> loader = completionLoader;
+        return loader == null ? completions : loader.get();
+    }
+
+    @JsonIgnore
+    public void setCompletions(CompletionSet completions) {
+        this.completions = completions == null ? new CompletionSet() : completions;
+        this.completionLoader = null;
+        recalculateAggregates();
+    }
+
+    public void setLazyCompletions(Supplier<CompletionSet> loader, int completedCount, int longestStreak,
+                                   long lastCompletedDay, long tailRunStartDay) {
+        this.completions = null;
+        this.completionLoader = loader;
+        this.unloadedCompletedCount = completedCount;
+        this.longestStreak = longestStreak;
+        this.longestStreakStale = false;
+        this.lastCompletedDay = lastCompletedDay;
+        this.tailRunStartDay = tailRunStartDay;
+    }
+
+    private CompletionSet completions() {
+        if (completionLoader != null) {
+            synchronized (this) {
+                Supplier<CompletionSet> loader = completionLoader;
+                if (loader != null) {
+                    completions = loader.get();
+                    completionLoader = null;
+                }
+            }
+        }
+        return completions;
+    }
+
+    private void recalculateAggregates() {
+        longestStreak = completions().longestRun();
+        longestStreakStale = false;
+        if (completions().isEmpty()) {
+            lastCompletedDay = 0;
+            tailRunStartDay = 0;
+        } else {
+            lastCompletedDay = completions().lastDay();
+            tailRunStartDay = completions().runStart(lastCompletedDay);
+        }
     }
 
     @Override
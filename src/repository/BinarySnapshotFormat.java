@@ -0,0 +1,417 @@
+package repository;
+
+import model.CompletionSet;
+import model.Habit;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinarySnapshotFormat implements SnapshotFormat {
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final byte[] MAGIC = {'H', 'T', 'R', 'K'};
+    private static final int VERSION_SEQUENTIAL = 1;
+    private static final int VERSION_INDEXED = 2;
+    private static final int FLAG_CREATED_DATE = 1;
+    private static final int FLAG_BITMAP = 2;
+
+    private final boolean memoryMapped;
+
+    public BinarySnapshotFormat() {
+        this(false);
+    }
+
+    public BinarySnapshotFormat(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    @Override
+    public List<Habit> read(Path path) throws IOException {
+        if (!memoryMapped) {
+            return SnapshotFormat.super.read(path);
+        }
+
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            int version = readHeader(mapped);
+            if (version == VERSION_SEQUENTIAL) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                    return read(in);
+                }
+            }
+
+            byte[] headerBytes = new byte[readVarInt(mapped)];
+            mapped.get(headerBytes);
+            int historyOffset = mapped.position();
+            DataInputStream headers = new DataInputStream(new ByteArrayInputStream(headerBytes));
+
+            int habitCount = readVarInt(headers);
+            List<Habit> habits = new ArrayList<>(habitCount);
+            for (int i = 0; i < habitCount; i++) {
+                HabitHeader header = readHabitHeader(headers);
+                if (header.completionCount > 0) {
+                    if ((long) historyOffset + header.historyLength > mapped.limit()) {
+                        throw new IOException("Completion history runs past the end of the snapshot.");
+                    }
+                    ByteBuffer history = mapped.slice(historyOffset, header.historyLength);
+                    header.habit.setLazyCompletions(() -> decodeLazily(header, history), header.completionCount,
+                        header.longestStreak, header.lastCompletedDay, header.tailRunStartDay);
+                    historyOffset += header.historyLength;
+                }
+                habits.add(header.habit);
+            }
+            return habits;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot file is truncated.", e);
+        }
+    }
+
+    @Override
+    public List<Habit> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int first = data.read();
+        if (first == -1) {
+            return null;
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        magic[0] = (byte) first;
+        data.readFully(magic, 1, MAGIC.length - 1);
+        int version = checkHeader(magic, data.readUnsignedByte());
+
+        if (version == VERSION_SEQUENTIAL) {
+            int habitCount = readVarInt(data);
+            List<Habit> habits = new ArrayList<>(habitCount);
+            for (int i = 0; i < habitCount; i++) {
+                habits.add(readSequentialHabit(data));
+            }
+            return habits;
+        }
+
+        readVarInt(data);
+        int habitCount = readVarInt(data);
+        List<HabitHeader> headers = new ArrayList<>(habitCount);
+        for (int i = 0; i < habitCount; i++) {
+            headers.add(readHabitHeader(data));
+        }
+
+        List<Habit> habits = new ArrayList<>(habitCount);
+        for (HabitHeader header : headers) {
+            if (header.completionCount > 0) {
+                byte[] history = new byte[header.historyLength];
+                data.readFully(history);
+                header.habit.setCompletions(decodeHistory(header, ByteBuffer.wrap(history)));
+            }
+            habits.add(header.habit);
+        }
+        return habits;
+    }
+
+    @Override
+    public void write(List<Habit> habits, OutputStream out) throws IOException {
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream headers = new DataOutputStream(headerBytes);
+        writeVarInt(headers, habits.size());
+        List<byte[]> bitmaps = new ArrayList<>(habits.size());
+        for (Habit habit : habits) {
+            bitmaps.add(writeHabitHeader(headers, habit));
+        }
+        headers.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeByte(VERSION_INDEXED);
+        writeVarInt(data, headerBytes.size());
+        headerBytes.writeTo(data);
+
+        for (int i = 0; i < habits.size(); i++) {
+            writeHistory(data, habits.get(i).getCompletions(), bitmaps.get(i));
+        }
+        data.flush();
+    }
+
+    @Override
+    public byte[] emptySnapshot() {
+        return new byte[] {MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3], VERSION_INDEXED, 1, 0};
+    }
+
+    private byte[] writeHabitHeader(DataOutputStream data, Habit habit) throws IOException {
+        CompletionSet completions = habit.getCompletions();
+        byte[] bitmap = null;
+        int deltaSize = 0;
+        if (!completions.isEmpty()) {
+            bitmap = completions.toBitmap();
+            deltaSize = deltaEncodedSize(completions);
+            if (bitmap.length >= deltaSize) {
+                bitmap = null;
+            }
+        }
+
+        writeVarInt(data, habit.getId());
+        byte[] nameBytes = habit.getName() == null ? new byte[0] : habit.getName().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(data, nameBytes.length);
+        data.write(nameBytes);
+
+        int flags = (habit.getCreatedDate() != null ? FLAG_CREATED_DATE : 0) | (bitmap != null ? FLAG_BITMAP : 0);
+        data.writeByte(flags);
+        if (habit.getCreatedDate() != null) {
+            writeVarLongZigZag(data, habit.getCreatedDate().toEpochDay());
+        }
+
+        writeVarInt(data, completions.size());
+        if (completions.isEmpty()) {
+            return null;
+        }
+
+        long lastDay = completions.lastDay();
+        writeVarLongZigZag(data, completions.firstDay());
+        writeVarLongZigZag(data, lastDay);
+        writeVarLong(data, lastDay - completions.runStart(lastDay));
+        writeVarInt(data, habit.calculateLongestStreak());
+        writeVarInt(data, bitmap != null ? bitmap.length : deltaSize);
+        return bitmap;
+    }
+
+    private HabitHeader readHabitHeader(DataInputStream data) throws IOException {
+        HabitHeader header = new HabitHeader();
+        int id = readVarInt(data);
+        byte[] nameBytes = new byte[readVarInt(data)];
+        data.readFully(nameBytes);
+        header.flags = data.readUnsignedByte();
+        LocalDate createdDate = (header.flags & FLAG_CREATED_DATE) != 0 ? LocalDate.ofEpochDay(readVarLongZigZag(data)) : null;
+        header.habit = new Habit(id, new String(nameBytes, StandardCharsets.UTF_8), createdDate, null);
+
+        header.completionCount = readVarInt(data);
+        if (header.completionCount > 0) {
+            header.firstDay = readVarLongZigZag(data);
+            header.lastCompletedDay = readVarLongZigZag(data);
+            header.tailRunStartDay = header.lastCompletedDay - readVarLong(data);
+            header.longestStreak = readVarInt(data);
+            header.historyLength = readVarInt(data);
+        }
+        return header;
+    }
+
+    private void writeHistory(DataOutputStream data, CompletionSet completions, byte[] bitmap) throws IOException {
+        if (completions.isEmpty()) {
+            return;
+        }
+        if (bitmap != null) {
+            data.write(bitmap);
+            return;
+        }
+
+        long previous = completions.firstDay();
+        for (long day = completions.nextDay(previous + 1); day != CompletionSet.NONE; day = completions.nextDay(day + 1)) {
+            writeVarLong(data, day - previous);
+            previous = day;
+        }
+    }
+
+    private CompletionSet decodeLazily(HabitHeader header, ByteBuffer history) {
+        try {
+            return decodeHistory(header, history.duplicate());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletionSet decodeHistory(HabitHeader header, ByteBuffer history) throws IOException {
+        try {
+            CompletionSet completions;
+            if ((header.flags & FLAG_BITMAP) != 0) {
+                byte[] bitmap = new byte[history.remaining()];
+                history.get(bitmap);
+                completions = CompletionSet.fromBitmap(header.firstDay, bitmap);
+            } else {
+                completions = new CompletionSet(header.firstDay);
+                long day = header.firstDay;
+                completions.add(day);
+                for (int i = 1; i < header.completionCount; i++) {
+                    day += readVarLong(history);
+                    completions.add(day);
+                }
+            }
+            if (completions.size() != header.completionCount) {
+                throw new IOException("Completion history does not match its count.");
+            }
+            return completions;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Completion history is truncated.", e);
+        }
+    }
+
+    private Habit readSequentialHabit(DataInputStream data) throws IOException {
+        int id = readVarInt(data);
+        byte[] nameBytes = new byte[readVarInt(data)];
+        data.readFully(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        int flags = data.readUnsignedByte();
+        LocalDate createdDate = (flags & FLAG_CREATED_DATE) != 0 ? LocalDate.ofEpochDay(readVarLongZigZag(data)) : null;
+
+        Habit habit = new Habit(id, name, createdDate, null);
+        int completionCount = readVarInt(data);
+        if (completionCount == 0) {
+            return habit;
+        }
+
+        long firstDay = readVarLongZigZag(data);
+        CompletionSet completions;
+        if ((flags & FLAG_BITMAP) != 0) {
+            byte[] bitmap = new byte[readVarInt(data)];
+            data.readFully(bitmap);
+            completions = CompletionSet.fromBitmap(firstDay, bitmap);
+            if (completions.size() != completionCount) {
+                throw new IOException("Completion bitmap does not match its count.");
+            }
+        } else {
+            completions = new CompletionSet(firstDay);
+            long day = firstDay;
+            completions.add(day);
+            for (int i = 1; i < completionCount; i++) {
+                day += readVarLong(data);
+                completions.add(day);
+            }
+        }
+        habit.setCompletions(completions);
+        return habit;
+    }
+
+    private int readHeader(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        return checkHeader(magic, buffer.get() & 0xFF);
+    }
+
+    private int checkHeader(byte[] magic, int version) throws IOException {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Not a habit snapshot file.");
+            }
+        }
+        if (version != VERSION_SEQUENTIAL && version != VERSION_INDEXED) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        return version;
+    }
+
+    private int deltaEncodedSize(CompletionSet completions) {
+        int size = 0;
+        long previous = completions.firstDay();
+        for (long day = completions.nextDay(previous + 1); day != CompletionSet.NONE; day = completions.nextDay(day + 1)) {
+            size += varLongSize(day - previous);
+            previous = day;
+        }
+        return size;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        writeVarLong(data, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    private static void writeVarLongZigZag(DataOutputStream data, long value) throws IOException {
+        writeVarLong(data, (value << 1) ^ (value >> 63));
+    }
+
+    private static int readVarInt(DataInputStream data) throws IOException {
+        return checkVarInt(readVarLong(data));
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        return checkVarInt(readVarLong(buffer));
+    }
+
+    private static int checkVarInt(long value) throws IOException {
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range in snapshot.");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in snapshot.");
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in snapshot.");
+    }
+
+    private static long readVarLongZigZag(DataInputStream data) throws IOException {
+        long value = readVarLong(data);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class HabitHeader {
+        private Habit habit;
+        private int flags;
+        private int completionCount;
+        private long firstDay;
+        private long lastCompletedDay;
+        private long tailRunStartDay;
+        private int longestStreak;
+        private int historyLength;
+    }
+}
@@ -0,0 +1,294 @@
+package repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import metrics.RepositoryEvent;
+import metrics.Timing;
+import model.Habit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class FileHabitRepository implements HabitRepository {
+    private static final int COMPACTION_THRESHOLD = 500;
+
+    private final Path filePath;
+    private final Path journalPath;
+    private final Path tempPath;
+    private final Path pendingPath;
+    private final boolean journalEnabled;
+    private final SnapshotFormat snapshotFormat;
+    private final RepositoryMetrics metrics;
+    private ObjectMapper journalMapper;
+    private int journalEntryCount;
+    private boolean compactOnNextWrite;
+
+    public FileHabitRepository(String filePath) {
+        this(filePath, false);
+    }
+
+    public FileHabitRepository(String filePath, boolean journalEnabled) {
+        this(filePath, journalEnabled, SnapshotFormat.forPath(Path.of(filePath)));
+    }
+
+    public FileHabitRepository(String filePath, boolean journalEnabled, SnapshotFormat snapshotFormat) {
+        this.filePath = Path.of(filePath);
+        this.journalPath = this.filePath.resolveSibling(this.filePath.getFileName() + ".log");
+        this.tempPath = this.filePath.resolveSibling(this.filePath.getFileName() + ".tmp");
+        this.pendingPath = pendingPath(this.filePath);
+        this.journalEnabled = journalEnabled;
+        this.snapshotFormat = snapshotFormat;
+        this.metrics = new RepositoryMetrics(snapshotFormat instanceof BinarySnapshotFormat ? "binary" : "json");
+    }
+
+    public void setPrettyPrint(boolean prettyPrint) {
+        if (snapshotFormat instanceof JsonSnapshotFormat) {
+            ((JsonSnapshotFormat) snapshotFormat).setPrettyPrint(prettyPrint);
+        }
+    }
+
+    @Override
+    public LoadResult loadHabits() {
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.LOAD);
+        LoadResult result = readHabits();
+        metrics.finish(timing, RepositoryMetrics.LOAD, result.getHabits().size(), sizeOnDisk());
+        return result;
+    }
+
+    private LoadResult readHabits() {
+        List<Habit> habits;
+        try {
+            ensureFileExists();
+
+            habits = promotePendingSnapshot() ? snapshotFormat.read(filePath) : readPendingSnapshot();
+            if (habits == null) {
+                Files.write(filePath, snapshotFormat.emptySnapshot(), StandardOpenOption.TRUNCATE_EXISTING);
+                habits = new ArrayList<>();
+            }
+        } catch (Exception e) {
+            compactOnNextWrite = true;
+            return new LoadResult(new ArrayList<>(), LOAD_FAILED_MESSAGE);
+        }
+
+        if (journalEnabled) {
+            habits = replayJournal(habits);
+        }
+        return new LoadResult(habits, null);
+    }
+
+    @Override
+    public void saveHabits(List<Habit> habits) throws IOException {
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.SAVE);
+        long bytes;
+        ensureParentExists();
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            snapshotFormat.write(habits, out);
+            out.flush();
+            channel.force(true);
+            bytes = channel.size();
+        }
+
+        Path target = isMemoryMapped() || Files.exists(pendingPath) ? pendingPath : filePath;
+        replace(tempPath, target);
+        metrics.finish(timing, RepositoryMetrics.SAVE, habits.size(), bytes);
+    }
+
+    @Override
+    public void recordChanges(List<JournalEntry> entries, Supplier<List<Habit>> habits) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!journalEnabled) {
+            saveHabits(habits.get());
+            return;
+        }
+        if (compactOnNextWrite || journalEntryCount + entries.size() >= COMPACTION_THRESHOLD) {
+            compact(habits.get());
+            return;
+        }
+
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.APPEND);
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : entries) {
+            lines.append(journalMapper().writeValueAsString(entry)).append(System.lineSeparator());
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        ensureParentExists();
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        journalEntryCount += entries.size();
+        metrics.finish(timing, RepositoryMetrics.APPEND, entries.size(), bytes.length);
+    }
+
+    @Override
+    public void compact(List<JournalEntry> entries, Supplier<List<Habit>> habits) throws IOException {
+        compact(habits.get());
+    }
+
+    public void compact(List<Habit> habits) throws IOException {
+        compactOnNextWrite = true;
+        saveHabits(habits);
+        if (journalEnabled) {
+            Files.deleteIfExists(journalPath);
+        }
+        journalEntryCount = 0;
+        compactOnNextWrite = false;
+    }
+
+    static Path snapshotPath(Path filePath) {
+        Path pending = pendingPath(filePath);
+        return Files.exists(pending) ? pending : filePath;
+    }
+
+    private static Path pendingPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + ".next");
+    }
+
+    private boolean isMemoryMapped() {
+        return snapshotFormat instanceof BinarySnapshotFormat
+            && ((BinarySnapshotFormat) snapshotFormat).isMemoryMapped();
+    }
+
+    private boolean promotePendingSnapshot() {
+        if (Files.notExists(pendingPath)) {
+            return true;
+        }
+        try {
+            replace(pendingPath, filePath);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private List<Habit> readPendingSnapshot() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(pendingPath))) {
+            return snapshotFormat.read(in);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private List<Habit> replayJournal(List<Habit> snapshot) {
+        journalEntryCount = 0;
+        if (Files.notExists(journalPath)) {
+            return snapshot;
+        }
+
+        Map<Integer, Habit> habitsById = new LinkedHashMap<>();
+        for (Habit habit : snapshot) {
+            habitsById.put(habit.getId(), habit);
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                applyEntry(journalMapper().readValue(line, JournalEntry.class), habitsById);
+                journalEntryCount++;
+            }
+        } catch (Exception e) {
+            compactOnNextWrite = true;
+        }
+
+        return new ArrayList<>(habitsById.values());
+    }
+
+    private void applyEntry(JournalEntry entry, Map<Integer, Habit> habitsById) {
+        Habit habit = habitsById.get(entry.getId());
+        switch (entry.getOp()) {
+            case JournalEntry.OP_ADD:
+                habitsById.put(entry.getId(), new Habit(entry.getId(), entry.getName(), entry.getDate(), null));
+                break;
+            case JournalEntry.OP_EDIT:
+                if (habit != null) {
+                    habit.setName(entry.getName());
+                    if (entry.getDate() != null) {
+                        habit.setCreatedDate(entry.getDate());
+                    }
+                }
+                break;
+            case JournalEntry.OP_DELETE:
+                habitsById.remove(entry.getId());
+                break;
+            case JournalEntry.OP_MARK:
+                if (habit != null) {
+                    habit.markCompleted(entry.getDate());
+                }
+                break;
+            case JournalEntry.OP_UNMARK:
+                if (habit != null) {
+                    habit.unmarkCompleted(entry.getDate());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private ObjectMapper journalMapper() {
+        if (journalMapper == null) {
+            journalMapper = JsonSnapshotFormat.createObjectMapper();
+        }
+        return journalMapper;
+    }
+
+    private long sizeOnDisk() {
+        try {
+            long size = Files.size(snapshotPath(filePath));
+            if (journalEnabled && Files.exists(journalPath)) {
+                size += Files.size(journalPath);
+            }
+            return size;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void ensureFileExists() throws IOException {
+        ensureParentExists();
+        if (Files.notExists(filePath)) {
+            Files.write(filePath, snapshotFormat.emptySnapshot(), StandardOpenOption.CREATE);
+        }
+    }
+
+    private void ensureParentExists() throws IOException {
+        Path parent = filePath.getParent();
+        if (parent != null && Files.notExists(parent)) {
+            Files.createDirectories(parent);
+        }
+    }
+}
@@ -1,69 +1,35 @@
 package repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import model.Habit;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
-public class HabitRepository {
-    private final Path filePath;
-    private final ObjectMapper objectMapper;
+public interface HabitRepository {
+    String LOAD_FAILED_MESSAGE =
+        "Could not read saved data. Starting with empty habits. You can continue and save to replace bad data.";
 
-    public HabitRepository(String filePath) {
-        this.filePath = Path.of(filePath);
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-    }
+    LoadResult loadHabits();
 
-    public LoadResult loadHabits() {
-        try {
-            ensureFileExists();
+    void saveHabits(List<Habit> habits) throws IOException;
 
-            String raw = Files.readString(filePath).trim();
-            if (raw.isEmpty()) {
-                Files.writeString(filePath, "[]", StandardOpenOption.TRUNCATE_EXISTING);
-                return new LoadResult(new ArrayList<>(), null);
-            }
+    void recordChanges(List<JournalEntry> entries, Supplier<List<Habit>> habits) throws IOException;
 
-            List<Habit> habits = objectMapper.readValue(raw, new TypeReference<List<Habit>>() {
-            });
-            if (habits == null) {
-                habits = new ArrayList<>();
-            }
+    void compact(List<JournalEntry> entries, Supplier<List<Habit>> habits) throws IOException;
 
-            return new LoadResult(habits, null);
-        } catch (Exception e) {
-            String message = "Could not read saved data. Starting with empty habits. You can continue and save to replace bad data.";
-            return new LoadResult(new ArrayList<>(), message);
-        }
+    default void close() throws IOException {
     }
 
-    public void saveHabits(List<Habit> habits) throws IOException {
-        ensureFileExists();
-        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(habits);
-        Files.writeString(filePath, json, StandardOpenOption.TRUNCATE_EXISTING);
-    }
-
-    private void ensureFileExists() throws IOException {
-        Path parent = filePath.getParent();
-        if (parent != null && Files.notExists(parent)) {
-            Files.createDirectories(parent);
-        }
-        if (Files.notExists(filePath)) {
-            Files.writeString(filePath, "[]", StandardOpenOption.CREATE);
+    static HabitRepository forPath(String filePath, boolean journalEnabled) {
+        if (Path.of(filePath).getFileName().toString().endsWith(SqlHabitRepository.FILE_EXTENSION)) {
+            return new SqlHabitRepository(filePath);
         }
+        return new FileHabitRepository(filePath, journalEnabled);
     }
 
-    public static class LoadResult {
+    class LoadResult {
         private final List<Habit> habits;
         private final String warningMessage;
 
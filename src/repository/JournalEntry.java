@@ -0,0 +1,82 @@
+package repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import model.Habit;
+
+import java.time.LocalDate;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalEntry {
+    public static final String OP_ADD = "add";
+    public static final String OP_EDIT = "edit";
+    public static final String OP_DELETE = "delete";
+    public static final String OP_MARK = "mark";
+    public static final String OP_UNMARK = "unmark";
+
+    private String op;
+    private int id;
+    private String name;
+    private LocalDate date;
+
+    public JournalEntry() {
+    }
+
+    public JournalEntry(String op, int id, String name, LocalDate date) {
+        this.op = op;
+        this.id = id;
+        this.name = name;
+        this.date = date;
+    }
+
+    public static JournalEntry added(Habit habit) {
+        return new JournalEntry(OP_ADD, habit.getId(), habit.getName(), habit.getCreatedDate());
+    }
+
+    public static JournalEntry edited(Habit habit) {
+        return new JournalEntry(OP_EDIT, habit.getId(), habit.getName(), habit.getCreatedDate());
+    }
+
+    public static JournalEntry deleted(int id) {
+        return new JournalEntry(OP_DELETE, id, null, null);
+    }
+
+    public static JournalEntry marked(int id, LocalDate date) {
+        return new JournalEntry(OP_MARK, id, null, date);
+    }
+
+    public static JournalEntry unmarked(int id, LocalDate date) {
+        return new JournalEntry(OP_UNMARK, id, null, date);
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+}
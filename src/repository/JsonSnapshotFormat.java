@@ -0,0 +1,199 @@
+package repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import model.CompletionSet;
+import model.Habit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonSnapshotFormat implements SnapshotFormat {
+    public static final String FILE_EXTENSION = ".json";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private boolean prettyPrint;
+
+    public JsonSnapshotFormat() {
+        this.prettyPrint = true;
+    }
+
+    public static ObjectMapper createObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return objectMapper;
+    }
+
+    public void setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public List<Habit> read(InputStream in) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+
+            List<Habit> habits = new ArrayList<>();
+            if (token == JsonToken.VALUE_NULL) {
+                return habits;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of habits.");
+            }
+
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                habits.add(readHabit(parser));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a JSON array of habits.");
+            }
+            return habits;
+        }
+    }
+
+    @Override
+    public void write(List<Habit> habits, OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (prettyPrint) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            for (Habit habit : habits) {
+                writeHabit(generator, habit);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    @Override
+    public byte[] emptySnapshot() {
+        return "[]".getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Habit readHabit(JsonParser parser) throws IOException {
+        int id = 0;
+        String name = null;
+        LocalDate createdDate = null;
+        List<LocalDate> completedDates = null;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id":
+                    id = readInt(parser, value);
+                    break;
+                case "name":
+                    name = value == JsonToken.VALUE_NULL ? null : readText(parser, value);
+                    break;
+                case "createdDate":
+                    createdDate = readDate(parser, value);
+                    break;
+                case "completedDates":
+                    completedDates = readDates(parser, value);
+                    break;
+                default:
+                    throw new IOException("Unknown habit field: " + field);
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Expected a JSON object for each habit.");
+        }
+        return new Habit(id, name, createdDate, completedDates);
+    }
+
+    private static void writeHabit(JsonGenerator generator, Habit habit) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", habit.getId());
+        generator.writeStringField("name", habit.getName());
+        generator.writeStringField("createdDate", habit.getCreatedDate() == null ? null
+            : habit.getCreatedDate().toString());
+        generator.writeArrayFieldStart("completedDates");
+        CompletionSet completions = habit.getCompletions();
+        for (long day = completions.nextDay(Long.MIN_VALUE); day != CompletionSet.NONE;
+             day = completions.nextDay(day + 1)) {
+            generator.writeString(LocalDate.ofEpochDay(day).toString());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static List<LocalDate> readDates(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.START_ARRAY) {
+            throw new IOException("Expected completedDates to be an array.");
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of completedDates.");
+            }
+            dates.add(readDate(parser, token));
+        }
+        return dates;
+    }
+
+    private static LocalDate readDate(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return LocalDate.ofEpochDay(parser.getLongValue());
+        }
+        if (value == JsonToken.START_ARRAY) {
+            int year = readInt(parser, parser.nextToken());
+            int month = readInt(parser, parser.nextToken());
+            int day = readInt(parser, parser.nextToken());
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a [year, month, day] date.");
+            }
+            return LocalDate.of(year, month, day);
+        }
+        try {
+            return LocalDate.parse(readText(parser, value).trim());
+        } catch (DateTimeParseException e) {
+            throw new IOException("Invalid date: " + parser.getText(), e);
+        }
+    }
+
+    private static int readInt(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        try {
+            return Integer.parseInt(readText(parser, value).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Expected a number but found: " + parser.getText(), e);
+        }
+    }
+
+    private static String readText(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new IOException("Expected a string but found: " + value);
+        }
+        return parser.getText();
+    }
+}
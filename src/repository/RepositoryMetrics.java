@@ -0,0 +1,75 @@
+package repository;
+
+import metrics.Histogram;
+import metrics.Metrics;
+import metrics.MetricsRegistry;
+import metrics.RepositoryEvent;
+import metrics.Timer;
+import metrics.Timing;
+
+final class RepositoryMetrics {
+    static final String LOAD = "load";
+    static final String SAVE = "save";
+    static final String APPEND = "append";
+
+    private static final String[] OPERATIONS = {LOAD, SAVE, APPEND};
+
+    private final String backend;
+    private volatile Series series;
+
+    RepositoryMetrics(String backend) {
+        this.backend = backend;
+    }
+
+    Timing<RepositoryEvent> start(String operation) {
+        return Timing.start(series().timers[indexOf(operation)], new RepositoryEvent(operation, backend));
+    }
+
+    void finish(Timing<RepositoryEvent> timing, String operation, int items, long bytes) {
+        if (bytes >= 0) {
+            series().sizes[indexOf(operation)].record(bytes);
+            timing.getEvent().setBytes(bytes);
+        }
+        timing.getEvent().setItems(items);
+        timing.stop();
+    }
+
+    private Series series() {
+        MetricsRegistry registry = Metrics.registry();
+        Series current = series;
+        if (current == null || current.registry != registry) {
+            current = new Series(registry, backend);
+            series = current;
+        }
+        return current;
+    }
+
+    private static int indexOf(String operation) {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            if (OPERATIONS[i].equals(operation)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown repository operation: " + operation);
+    }
+
+    private static final class Series {
+        private final MetricsRegistry registry;
+        private final Timer[] timers;
+        private final Histogram[] sizes;
+
+        private Series(MetricsRegistry registry, String backend) {
+            this.registry = registry;
+            this.timers = new Timer[OPERATIONS.length];
+            this.sizes = new Histogram[OPERATIONS.length];
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                timers[i] = registry.timer("habit_repository_duration_seconds",
+                    "Time spent loading, saving and appending habit data.",
+                    "operation", OPERATIONS[i], "backend", backend);
+                sizes[i] = registry.histogram("habit_repository_bytes",
+                    "Bytes read or written per habit data operation.",
+                    "operation", OPERATIONS[i], "backend", backend);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package repository;
+
+import model.Habit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SnapshotConverter {
+    private SnapshotConverter() {
+    }
+
+    public static int convert(Path source, Path target) throws IOException {
+        List<Habit> habits = SnapshotFormat.forPath(source).read(FileHabitRepository.snapshotPath(source));
+        if (habits == null) {
+            habits = new ArrayList<>();
+        }
+
+        HabitRepository repository = HabitRepository.forPath(target.toString(), false);
+        try {
+            repository.saveHabits(habits);
+        } finally {
+            repository.close();
+        }
+        return habits.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SnapshotConverter <source.json|source.bin> <target.json|target.bin|target.mv.db>");
+            System.exit(2);
+        }
+
+        int count = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.println("Converted " + count + " habits from " + args[0] + " to " + args[1] + ".");
+    }
+}
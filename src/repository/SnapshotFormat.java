@@ -0,0 +1,33 @@
+package repository;
+
+import model.Habit;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public interface SnapshotFormat {
+    List<Habit> read(InputStream in) throws IOException;
+
+    default List<Habit> read(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    void write(List<Habit> habits, OutputStream out) throws IOException;
+
+    byte[] emptySnapshot();
+
+    static SnapshotFormat forPath(Path path) {
+        String fileName = path.getFileName().toString();
+        if (fileName.endsWith(BinarySnapshotFormat.FILE_EXTENSION)) {
+            return new BinarySnapshotFormat();
+        }
+        return new JsonSnapshotFormat();
+    }
+}
@@ -0,0 +1,348 @@
+package repository;
+
+import metrics.RepositoryEvent;
+import metrics.Timing;
+import model.CompletionSet;
+import model.Habit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class SqlHabitRepository implements HabitRepository {
+    public static final String FILE_EXTENSION = ".mv.db";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS habits ("
+            + "id INT PRIMARY KEY, "
+            + "name VARCHAR, "
+            + "created_date DATE)",
+        "CREATE TABLE IF NOT EXISTS completions ("
+            + "habit_id INT NOT NULL, "
+            + "completed_date DATE NOT NULL, "
+            + "PRIMARY KEY (habit_id, completed_date))",
+        "CREATE INDEX IF NOT EXISTS completions_by_date ON completions (completed_date)"
+    };
+    private static final String INSERT_HABIT = "MERGE INTO habits (id, name, created_date) KEY (id) VALUES (?, ?, ?)";
+    private static final String RENAME_HABIT =
+        "UPDATE habits SET name = ?, created_date = COALESCE(?, created_date) WHERE id = ?";
+    private static final String DELETE_HABIT = "DELETE FROM habits WHERE id = ?";
+    private static final String DELETE_HABIT_COMPLETIONS = "DELETE FROM completions WHERE habit_id = ?";
+    private static final String INSERT_COMPLETION = "INSERT INTO completions (habit_id, completed_date) "
+        + "SELECT id, ? FROM habits WHERE id = ? AND NOT EXISTS "
+        + "(SELECT 1 FROM completions WHERE habit_id = ? AND completed_date = ?)";
+    private static final String DELETE_COMPLETION = "DELETE FROM completions WHERE habit_id = ? AND completed_date = ?";
+
+    private final Path databasePath;
+    private final String url;
+    private final RepositoryMetrics metrics;
+    private Connection connection;
+
+    public SqlHabitRepository(String databasePath) {
+        String path = Path.of(databasePath).toAbsolutePath().toString();
+        if (path.endsWith(FILE_EXTENSION)) {
+            path = path.substring(0, path.length() - FILE_EXTENSION.length());
+        }
+        this.databasePath = Path.of(path + FILE_EXTENSION);
+        this.url = "jdbc:h2:file:" + path + ";DB_CLOSE_ON_EXIT=FALSE";
+        this.metrics = new RepositoryMetrics("sql");
+    }
+
+    @Override
+    public synchronized LoadResult loadHabits() {
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.LOAD);
+        try {
+            Connection db = connection();
+            Map<Integer, List<LocalDate>> completedDates = new HashMap<>();
+            try (Statement statement = db.createStatement();
+                 ResultSet completionRows = statement.executeQuery(
+                     "SELECT habit_id, completed_date FROM completions ORDER BY habit_id, completed_date")) {
+                while (completionRows.next()) {
+                    completedDates.computeIfAbsent(completionRows.getInt(1), id -> new ArrayList<>())
+                        .add(completionRows.getObject(2, LocalDate.class));
+                }
+            }
+
+            List<Habit> habits = new ArrayList<>();
+            try (Statement statement = db.createStatement();
+                 ResultSet habitRows = statement.executeQuery(
+                     "SELECT id, name, created_date FROM habits ORDER BY id")) {
+                while (habitRows.next()) {
+                    int id = habitRows.getInt(1);
+                    habits.add(new Habit(id, habitRows.getString(2), habitRows.getObject(3, LocalDate.class),
+                        completedDates.get(id)));
+                }
+            }
+            db.commit();
+            metrics.finish(timing, RepositoryMetrics.LOAD, habits.size(), sizeOnDisk());
+            return new LoadResult(habits, null);
+        } catch (SQLException e) {
+            rollbackQuietly();
+            return new LoadResult(new ArrayList<>(), LOAD_FAILED_MESSAGE);
+        }
+    }
+
+    @Override
+    public synchronized void saveHabits(List<Habit> habits) throws IOException {
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.SAVE);
+        try {
+            Connection db = connection();
+            try (Statement statement = db.createStatement();
+                 PreparedStatement insertHabit = db.prepareStatement(
+                     "INSERT INTO habits (id, name, created_date) VALUES (?, ?, ?)");
+                 PreparedStatement insertCompletion = db.prepareStatement(
+                     "INSERT INTO completions (habit_id, completed_date) VALUES (?, ?)")) {
+                statement.executeUpdate("DELETE FROM completions");
+                statement.executeUpdate("DELETE FROM habits");
+
+                int pending = 0;
+                for (Habit habit : habits) {
+                    insertHabit.setInt(1, habit.getId());
+                    insertHabit.setString(2, habit.getName());
+                    insertHabit.setObject(3, habit.getCreatedDate());
+                    insertHabit.addBatch();
+                    if (++pending % BATCH_SIZE == 0) {
+                        insertHabit.executeBatch();
+                    }
+                }
+                insertHabit.executeBatch();
+
+                pending = 0;
+                for (Habit habit : habits) {
+                    CompletionSet completions = habit.getCompletions();
+                    for (long day = completions.nextDay(Long.MIN_VALUE); day != CompletionSet.NONE;
+                         day = completions.nextDay(day + 1)) {
+                        insertCompletion.setInt(1, habit.getId());
+                        insertCompletion.setObject(2, LocalDate.ofEpochDay(day));
+                        insertCompletion.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            insertCompletion.executeBatch();
+                        }
+                    }
+                }
+                insertCompletion.executeBatch();
+            }
+            db.commit();
+            metrics.finish(timing, RepositoryMetrics.SAVE, habits.size(), sizeOnDisk());
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized void recordChanges(List<JournalEntry> entries, Supplier<List<Habit>> habits)
+            throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Timing<RepositoryEvent> timing = metrics.start(RepositoryMetrics.APPEND);
+        try {
+            Connection db = connection();
+            try (PreparedStatement insertHabit = db.prepareStatement(INSERT_HABIT);
+                 PreparedStatement renameHabit = db.prepareStatement(RENAME_HABIT);
+                 PreparedStatement deleteHabit = db.prepareStatement(DELETE_HABIT);
+                 PreparedStatement deleteHabitCompletions = db.prepareStatement(DELETE_HABIT_COMPLETIONS);
+                 PreparedStatement insertCompletion = db.prepareStatement(INSERT_COMPLETION);
+                 PreparedStatement deleteCompletion = db.prepareStatement(DELETE_COMPLETION)) {
+                StatementBatch batch = new StatementBatch();
+                for (JournalEntry entry : entries) {
+                    switch (entry.getOp()) {
+                        case JournalEntry.OP_ADD:
+                            insertHabit.setInt(1, entry.getId());
+                            insertHabit.setString(2, entry.getName());
+                            insertHabit.setObject(3, entry.getDate());
+                            batch.add(insertHabit);
+                            break;
+                        case JournalEntry.OP_EDIT:
+                            renameHabit.setString(1, entry.getName());
+                            renameHabit.setObject(2, entry.getDate());
+                            renameHabit.setInt(3, entry.getId());
+                            batch.add(renameHabit);
+                            break;
+                        case JournalEntry.OP_DELETE:
+                            deleteHabitCompletions.setInt(1, entry.getId());
+                            batch.add(deleteHabitCompletions);
+                            deleteHabit.setInt(1, entry.getId());
+                            batch.add(deleteHabit);
+                            break;
+                        case JournalEntry.OP_MARK:
+                            insertCompletion.setObject(1, entry.getDate());
+                            insertCompletion.setInt(2, entry.getId());
+                            insertCompletion.setInt(3, entry.getId());
+                            insertCompletion.setObject(4, entry.getDate());
+                            batch.add(insertCompletion);
+                            break;
+                        case JournalEntry.OP_UNMARK:
+                            deleteCompletion.setInt(1, entry.getId());
+                            deleteCompletion.setObject(2, entry.getDate());
+                            batch.add(deleteCompletion);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                batch.flush();
+            }
+            db.commit();
+            metrics.finish(timing, RepositoryMetrics.APPEND, entries.size(), -1);
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public void compact(List<JournalEntry> entries, Supplier<List<Habit>> habits) throws IOException {
+        recordChanges(entries, habits);
+    }
+
+    public synchronized List<LocalDate> findCompletions(int habitId, LocalDate from, LocalDate to)
+            throws IOException {
+        try (PreparedStatement query = connection().prepareStatement(
+                "SELECT completed_date FROM completions WHERE habit_id = ? AND completed_date BETWEEN ? AND ? "
+                    + "ORDER BY completed_date")) {
+            query.setInt(1, habitId);
+            query.setObject(2, from);
+            query.setObject(3, to);
+            List<LocalDate> dates = new ArrayList<>();
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    dates.add(rows.getObject(1, LocalDate.class));
+                }
+            }
+            return dates;
+        } catch (SQLException e) {
+            throw failed(e);
+        }
+    }
+
+    public synchronized int countCompletions(int habitId, LocalDate from, LocalDate to) throws IOException {
+        try (PreparedStatement query = connection().prepareStatement(
+                "SELECT COUNT(*) FROM completions WHERE habit_id = ? AND completed_date BETWEEN ? AND ?")) {
+            query.setInt(1, habitId);
+            query.setObject(2, from);
+            query.setObject(3, to);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? rows.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw failed(e);
+        }
+    }
+
+    public synchronized int countCompletionsOn(LocalDate date) throws IOException {
+        try (PreparedStatement query = connection().prepareStatement(
+                "SELECT COUNT(*) FROM completions WHERE completed_date = ?")) {
+            query.setObject(1, date);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? rows.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw failed(e);
+        }
+    }
+
+    public Path getDatabasePath() {
+        return databasePath;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw failed(e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+
+        try {
+            Path parent = databasePath.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Could not create " + databasePath.getParent(), e);
+        }
+        Connection db = DriverManager.getConnection(url);
+        try (Statement statement = db.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+            db.setAutoCommit(false);
+        } catch (SQLException e) {
+            db.close();
+            throw e;
+        }
+        connection = db;
+        return db;
+    }
+
+    private long sizeOnDisk() {
+        try {
+            return Files.size(databasePath);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (connection != null) {
+                connection.rollback();
+            }
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static IOException failed(SQLException e) {
+        return new IOException("Database error: " + e.getMessage(), e);
+    }
+
+    private static final class StatementBatch {
+        private PreparedStatement statement;
+        private int size;
+
+        private void add(PreparedStatement next) throws SQLException {
+            if (next != statement) {
+                flush();
+                statement = next;
+            }
+            next.addBatch();
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (size > 0) {
+                statement.executeBatch();
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package repository;
+
+import model.Habit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class WriteBehindSaver {
+    private final HabitRepository repository;
+    private final Supplier<List<Habit>> snapshotSupplier;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Object flushLock;
+
+    private List<JournalEntry> pending;
+    private boolean flushScheduled;
+    private IOException lastFailure;
+
+    public WriteBehindSaver(HabitRepository repository, Supplier<List<Habit>> snapshotSupplier, long intervalMillis) {
+        this(repository, snapshotSupplier, intervalMillis, intervalMillis <= 0 ? null
+            : Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "habit-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            }), true);
+    }
+
+    public WriteBehindSaver(HabitRepository repository, Supplier<List<Habit>> snapshotSupplier, long intervalMillis,
+                            ScheduledExecutorService scheduler) {
+        this(repository, snapshotSupplier, intervalMillis, scheduler, false);
+    }
+
+    private WriteBehindSaver(HabitRepository repository, Supplier<List<Habit>> snapshotSupplier, long intervalMillis,
+                             ScheduledExecutorService scheduler, boolean ownsScheduler) {
+        this.repository = repository;
+        this.snapshotSupplier = snapshotSupplier;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.flushLock = new Object();
+        this.pending = new ArrayList<>();
+    }
+
+    public synchronized void submit(JournalEntry entry) {
+        pending.add(entry);
+        if (!flushScheduled && scheduler != null) {
+            flushScheduled = true;
+            scheduler.schedule(this::flushQuietly, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized IOException takeFailure() {
+        IOException failure = lastFailure;
+        lastFailure = null;
+        return failure;
+    }
+
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<JournalEntry> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                flushScheduled = false;
+            }
+
+            try {
+                repository.recordChanges(batch, snapshotSupplier);
+            } catch (IOException e) {
+                synchronized (this) {
+                    batch.addAll(pending);
+                    pending = batch;
+                }
+                throw e;
+            }
+        }
+    }
+
+    public void compact() throws IOException {
+        synchronized (flushLock) {
+            List<JournalEntry> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                flushScheduled = false;
+            }
+
+            try {
+                repository.compact(batch, snapshotSupplier);
+            } catch (IOException e) {
+                synchronized (this) {
+                    batch.addAll(pending);
+                    pending = batch;
+                }
+                throw e;
+            }
+        }
+    }
+
+    public void shutdown() throws IOException {
+        if (ownsScheduler && scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            synchronized (this) {
+                lastFailure = e;
+            }
+        }
+    }
+}
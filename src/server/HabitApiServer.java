@@ -0,0 +1,369 @@
+package server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.MetricsEndpoint;
+import model.Habit;
+import repository.HabitRepository;
+import repository.JsonSnapshotFormat;
+import service.HabitService;
+import service.HabitSummary;
+import service.ServiceResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class HabitApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_THREADS = 64;
+
+    private static final long SAVE_INTERVAL_MILLIS = 1000;
+    private static final int BACKLOG = 1024;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final String NOT_FOUND_MESSAGE = "Habit not found.";
+    private static final String SAVE_FAILED_MESSAGE = "Could not save data. Please try again.";
+    private static final String BUSY_MESSAGE = "Server is busy. Please try again.";
+    private static final ObjectMapper OBJECT_MAPPER = JsonSnapshotFormat.createObjectMapper();
+
+    private final HabitService habitService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ExecutorService busyExecutor;
+    private final ThreadLocal<Boolean> rejected = ThreadLocal.withInitial(() -> false);
+
+    public HabitApiServer(HabitService habitService, InetSocketAddress address) throws IOException {
+        this(habitService, address, DEFAULT_MAX_THREADS);
+    }
+
+    public HabitApiServer(HabitService habitService, InetSocketAddress address, int maxThreads) throws IOException {
+        this.habitService = habitService;
+        this.busyExecutor = Executors.newSingleThreadExecutor(runnable -> newThread(runnable, "habit-http-busy"));
+        this.executor = createExecutor(maxThreads);
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/habits", this::handle);
+        server.createContext("/stats", this::handle);
+        server.createContext(MetricsEndpoint.PATH, MetricsEndpoint::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        busyExecutor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private ExecutorService createExecutor(int maxThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> newThread(runnable, "habit-http"),
+                (task, executor) -> rejectWhenBusy(task));
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private void rejectWhenBusy(Runnable exchangeTask) {
+        busyExecutor.execute(() -> {
+            rejected.set(true);
+            try {
+                exchangeTask.run();
+            } finally {
+                rejected.set(false);
+            }
+        });
+    }
+
+    private static Thread newThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: HabitApiServer <data file> [port]");
+            System.exit(2);
+        }
+
+        int port = DEFAULT_PORT;
+        if (args.length == 2) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Port is not a number: " + args[1]);
+                System.exit(2);
+            }
+        }
+
+        HabitRepository repository = HabitRepository.forPath(args[0], Boolean.getBoolean("habittracker.journal"));
+        HabitService habitService = new HabitService(repository, SAVE_INTERVAL_MILLIS);
+        habitService.loadHabits();
+        if (habitService.getLoadWarningMessage() != null) {
+            System.err.println(habitService.getLoadWarningMessage());
+            System.exit(1);
+        }
+
+        String host = System.getProperty("habittracker.http.host", "127.0.0.1");
+        HabitApiServer apiServer = new HabitApiServer(habitService, new InetSocketAddress(host, port),
+            Integer.getInteger("habittracker.http.threads", DEFAULT_MAX_THREADS));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            try {
+                habitService.shutdown();
+            } catch (IOException e) {
+                System.err.println("Could not save data on exit: " + e.getMessage());
+            }
+        }, "habit-save-on-exit"));
+
+        apiServer.start();
+        System.out.println("Listening on http://" + host + ":" + apiServer.getPort());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (rejected.get()) {
+                sendMessage(exchange, 503, false, BUSY_MESSAGE);
+                return;
+            }
+            route(exchange);
+        } catch (RuntimeException e) {
+            if (exchange.getResponseCode() == -1) {
+                sendMessage(exchange, 500, false, "Internal error.");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] parts = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+
+        if (parts[0].equals("stats")) {
+            if (parts.length == 1 && method.equals("GET")) {
+                writeStats(exchange);
+            } else {
+                sendMessage(exchange, parts.length == 1 ? 405 : 404, false, "Unknown endpoint.");
+            }
+            return;
+        }
+        if (!parts[0].equals("habits")) {
+            sendMessage(exchange, 404, false, "Unknown endpoint.");
+            return;
+        }
+
+        if (parts.length == 1) {
+            if (method.equals("GET")) {
+                writeHabits(exchange, queryParameter(exchange, "q"));
+            } else if (method.equals("POST")) {
+                addHabit(exchange);
+            } else {
+                sendMessage(exchange, 405, false, "Method not allowed.");
+            }
+            return;
+        }
+
+        int id;
+        try {
+            id = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            sendMessage(exchange, 404, false, NOT_FOUND_MESSAGE);
+            return;
+        }
+
+        if (parts.length == 2) {
+            switch (method) {
+                case "GET":
+                    writeHabit(exchange, id);
+                    break;
+                case "PUT":
+                    String name = readName(exchange);
+                    if (name != null) {
+                        sendResult(exchange, habitService.editHabit(id, name), 200);
+                    }
+                    break;
+                case "DELETE":
+                    sendResult(exchange, habitService.deleteHabit(id), 200);
+                    break;
+                default:
+                    sendMessage(exchange, 405, false, "Method not allowed.");
+                    break;
+            }
+        } else if (parts.length == 3 && parts[2].equals("completions")) {
+            if (method.equals("POST")) {
+                sendResult(exchange, habitService.markHabitCompletedToday(id), 201);
+            } else {
+                sendMessage(exchange, 405, false, "Method not allowed.");
+            }
+        } else {
+            sendMessage(exchange, 404, false, "Unknown endpoint.");
+        }
+    }
+
+    private void addHabit(HttpExchange exchange) throws IOException {
+        String name = readName(exchange);
+        if (name == null) {
+            return;
+        }
+
+        ServiceResult result = habitService.addHabit(name);
+        if (!result.isSuccess()) {
+            sendResult(exchange, result, 201);
+            return;
+        }
+
+        Habit habit = habitService.findHabitByName(name);
+        HabitSummary summary = habit == null ? null : habitService.summarizeHabit(habit.getId());
+        try (JsonGenerator generator = startJson(exchange, 201)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeStringField("message", result.getMessage());
+            if (summary != null) {
+                generator.writeFieldName("habit");
+                writeSummary(generator, summary);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeHabits(HttpExchange exchange, String query) throws IOException {
+        List<Habit> habits = query == null ? habitService.getAllHabits() : habitService.searchHabits(query);
+        try (JsonGenerator generator = startJson(exchange, 200)) {
+            generator.writeStartArray();
+            for (Habit habit : habits) {
+                HabitSummary summary = habitService.summarizeHabit(habit.getId());
+                if (summary != null) {
+                    writeSummary(generator, summary);
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeHabit(HttpExchange exchange, int id) throws IOException {
+        HabitSummary summary = habitService.summarizeHabit(id);
+        if (summary == null) {
+            sendMessage(exchange, 404, false, NOT_FOUND_MESSAGE);
+            return;
+        }
+        try (JsonGenerator generator = startJson(exchange, 200)) {
+            writeSummary(generator, summary);
+        }
+    }
+
+    private void writeStats(HttpExchange exchange) throws IOException {
+        try (JsonGenerator generator = startJson(exchange, 200)) {
+            generator.writeStartObject();
+            generator.writeStringField("date", habitService.today().toString());
+            generator.writeNumberField("totalHabits", habitService.getTotalHabits());
+            generator.writeNumberField("completedToday", habitService.getHabitsCompletedTodayCount());
+            generator.writeNumberField("averageCompletion", habitService.getAverageCompletionPercentage());
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeSummary(JsonGenerator generator, HabitSummary summary) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", summary.getId());
+        generator.writeStringField("name", summary.getName());
+        generator.writeStringField("createdDate", String.valueOf(summary.getCreatedDate()));
+        generator.writeNumberField("completedCount", summary.getCompletedCount());
+        generator.writeNumberField("currentStreak", summary.getCurrentStreak());
+        generator.writeNumberField("longestStreak", summary.getLongestStreak());
+        generator.writeNumberField("completionRate", summary.getCompletionRate());
+        generator.writeBooleanField("completedToday", summary.isCompletedToday());
+        generator.writeEndObject();
+    }
+
+    private String readName(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = input.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            sendMessage(exchange, 413, false, "Request body is too large.");
+            return null;
+        }
+
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(body);
+        } catch (IOException e) {
+            node = null;
+        }
+        JsonNode name = node == null ? null : node.get("name");
+        if (name == null || !name.isTextual()) {
+            sendMessage(exchange, 400, false, "Expected a JSON object with a \"name\" field.");
+            return null;
+        }
+        return name.asText();
+    }
+
+    private static void sendResult(HttpExchange exchange, ServiceResult result, int successStatus) throws IOException {
+        int status = successStatus;
+        if (!result.isSuccess()) {
+            status = NOT_FOUND_MESSAGE.equals(result.getMessage()) ? 404
+                : SAVE_FAILED_MESSAGE.equals(result.getMessage()) ? 503
+                : 400;
+        }
+        sendMessage(exchange, status, result.isSuccess(), result.getMessage());
+    }
+
+    private static void sendMessage(HttpExchange exchange, int status, boolean success, String message)
+            throws IOException {
+        try (JsonGenerator generator = startJson(exchange, status)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", success);
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+        }
+    }
+
+    private static JsonGenerator startJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream body = exchange.getResponseBody();
+        return OBJECT_MAPPER.getFactory().createGenerator(body);
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            if (key.equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+package service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncHabitService {
+    private final HabitService habitService;
+    private final ExecutorService executor;
+
+    public AsyncHabitService(HabitService habitService) {
+        this.habitService = habitService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "habit-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public HabitService getHabitService() {
+        return habitService;
+    }
+
+    public CompletableFuture<Void> loadHabits() {
+        return CompletableFuture.runAsync(habitService::loadHabits, executor);
+    }
+
+    public CompletableFuture<ServiceResult> addHabit(String habitName) {
+        return CompletableFuture.supplyAsync(() -> habitService.addHabit(habitName), executor);
+    }
+
+    public CompletableFuture<ServiceResult> editHabit(int id, String newName) {
+        return CompletableFuture.supplyAsync(() -> habitService.editHabit(id, newName), executor);
+    }
+
+    public CompletableFuture<ServiceResult> deleteHabit(int id) {
+        return CompletableFuture.supplyAsync(() -> habitService.deleteHabit(id), executor);
+    }
+
+    public CompletableFuture<ServiceResult> markHabitCompletedToday(int id) {
+        return CompletableFuture.supplyAsync(() -> habitService.markHabitCompletedToday(id), executor);
+    }
+
+    public CompletableFuture<HabitTrends> summarizeTrends(int habitId) {
+        return CompletableFuture.supplyAsync(() -> habitService.summarizeTrends(habitId), executor);
+    }
+
+    public CompletableFuture<ServiceResult> undo() {
+        return CompletableFuture.supplyAsync(habitService::undo, executor);
+    }
+
+    public CompletableFuture<ServiceResult> redo() {
+        return CompletableFuture.supplyAsync(habitService::redo, executor);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,140 @@
+package service;
+
+import model.Habit;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+final class ChangeHistory {
+    static final int DEFAULT_LIMIT = 100;
+
+    enum Kind {
+        ADDED,
+        DELETED,
+        RENAMED,
+        MARKED
+    }
+
+    private final int limit;
+    private final Deque<Change> undoStack;
+    private final Deque<Change> redoStack;
+
+    ChangeHistory(int limit) {
+        this.limit = limit;
+        this.undoStack = new ArrayDeque<>();
+        this.redoStack = new ArrayDeque<>();
+    }
+
+    synchronized void record(Change change) {
+        push(undoStack, change);
+        redoStack.clear();
+    }
+
+    synchronized Change takeUndo() {
+        return undoStack.poll();
+    }
+
+    synchronized Change takeRedo() {
+        return redoStack.poll();
+    }
+
+    synchronized void pushUndo(Change change) {
+        push(undoStack, change);
+    }
+
+    synchronized void pushRedo(Change change) {
+        push(redoStack, change);
+    }
+
+    synchronized Change peekUndo() {
+        return undoStack.peek();
+    }
+
+    synchronized Change peekRedo() {
+        return redoStack.peek();
+    }
+
+    synchronized void clear() {
+        undoStack.clear();
+        redoStack.clear();
+    }
+
+    private void push(Deque<Change> stack, Change change) {
+        stack.push(change);
+        if (stack.size() > limit) {
+            stack.removeLast();
+        }
+    }
+
+    static final class Change {
+        private final Kind kind;
+        private final int habitId;
+        private final Habit habit;
+        private final String oldName;
+        private final String newName;
+        private final LocalDate date;
+
+        private Change(Kind kind, int habitId, Habit habit, String oldName, String newName, LocalDate date) {
+            this.kind = kind;
+            this.habitId = habitId;
+            this.habit = habit;
+            this.oldName = oldName;
+            this.newName = newName;
+            this.date = date;
+        }
+
+        static Change added(Habit habit) {
+            return new Change(Kind.ADDED, habit.getId(), habit, null, habit.getName(), null);
+        }
+
+        static Change deleted(Habit habit) {
+            return new Change(Kind.DELETED, habit.getId(), habit, habit.getName(), null, null);
+        }
+
+        static Change renamed(int habitId, String oldName, String newName) {
+            return new Change(Kind.RENAMED, habitId, null, oldName, newName, null);
+        }
+
+        static Change marked(Habit habit, LocalDate date) {
+            return new Change(Kind.MARKED, habit.getId(), null, habit.getName(), habit.getName(), date);
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        int getHabitId() {
+            return habitId;
+        }
+
+        Habit getHabit() {
+            return habit;
+        }
+
+        String getOldName() {
+            return oldName;
+        }
+
+        String getNewName() {
+            return newName;
+        }
+
+        LocalDate getDate() {
+            return date;
+        }
+
+        String describe() {
+            switch (kind) {
+                case ADDED:
+                    return "adding \"" + newName + "\"";
+                case DELETED:
+                    return "deleting \"" + oldName + "\"";
+                case RENAMED:
+                    return "renaming \"" + oldName + "\" to \"" + newName + "\"";
+                default:
+                    return "marking \"" + newName + "\" complete for " + date;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.CompletionSet;
+import model.Habit;
+import repository.HabitRepository;
+import repository.JsonSnapshotFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class CompletionExporter {
+    private static final ObjectMapper OBJECT_MAPPER = JsonSnapshotFormat.createObjectMapper();
+
+    private final HabitService habitService;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Set<Integer> habitIds;
+    private Set<String> habitNames;
+
+    public CompletionExporter(HabitService habitService) {
+        this.habitService = habitService;
+    }
+
+    public void setDateRange(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    public void setHabitIds(Collection<Integer> habitIds) {
+        this.habitIds = habitIds == null ? null : new HashSet<>(habitIds);
+    }
+
+    public void setHabitNames(Collection<String> habitNames) {
+        if (habitNames == null) {
+            this.habitNames = null;
+            return;
+        }
+        this.habitNames = new HashSet<>();
+        for (String name : habitNames) {
+            this.habitNames.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public int exportCsv(Writer out) throws IOException {
+        Writer writer = new BufferedWriter(out);
+        writer.write("habitId,habit,date\n");
+        int rows = 0;
+        for (Habit listed : habitService.getAllHabits()) {
+            Habit habit = selectedSnapshot(listed);
+            if (habit == null) {
+                continue;
+            }
+
+            String prefix = habit.getId() + "," + csvField(habit.getName()) + ",";
+            CompletionSet completions = habit.getCompletions();
+            long last = lastDay();
+            for (long day = completions.nextDay(firstDay()); day != CompletionSet.NONE && day <= last;
+                 day = completions.nextDay(day + 1)) {
+                writer.write(prefix);
+                writer.write(LocalDate.ofEpochDay(day).toString());
+                writer.write('\n');
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    public int exportJsonLines(Writer out) throws IOException {
+        int rows = 0;
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (Habit listed : habitService.getAllHabits()) {
+                Habit habit = selectedSnapshot(listed);
+                if (habit == null) {
+                    continue;
+                }
+
+                CompletionSet completions = habit.getCompletions();
+                long last = lastDay();
+                for (long day = completions.nextDay(firstDay()); day != CompletionSet.NONE && day <= last;
+                     day = completions.nextDay(day + 1)) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("habitId", habit.getId());
+                    generator.writeStringField("habit", habit.getName());
+                    generator.writeStringField("date", LocalDate.ofEpochDay(day).toString());
+                    generator.writeEndObject();
+                    rows++;
+                }
+            }
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return rows;
+    }
+
+    public int exportFile(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return isCsv(file) ? exportCsv(writer) : exportJsonLines(writer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length % 2 != 0) {
+            printUsage();
+        }
+
+        HabitService habitService = new HabitService(
+            HabitRepository.forPath(args[0], Boolean.getBoolean("habittracker.journal")));
+        habitService.loadHabits();
+        if (habitService.getLoadWarningMessage() != null) {
+            System.err.println(habitService.getLoadWarningMessage());
+            System.exit(1);
+        }
+
+        CompletionExporter exporter = new CompletionExporter(habitService);
+        LocalDate from = null;
+        LocalDate to = null;
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        try {
+            for (int i = 2; i < args.length; i += 2) {
+                switch (args[i]) {
+                    case "--from":
+                        from = LocalDate.parse(args[i + 1]);
+                        break;
+                    case "--to":
+                        to = LocalDate.parse(args[i + 1]);
+                        break;
+                    case "--habit":
+                        if (args[i + 1].chars().allMatch(Character::isDigit)) {
+                            ids.add(Integer.parseInt(args[i + 1]));
+                        } else {
+                            names.add(args[i + 1]);
+                        }
+                        break;
+                    default:
+                        printUsage();
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            printUsage();
+        }
+
+        exporter.setDateRange(from, to);
+        if (!ids.isEmpty() || !names.isEmpty()) {
+            exporter.setHabitIds(ids);
+            exporter.setHabitNames(names);
+        }
+        int rows = exporter.exportFile(Path.of(args[1]));
+        habitService.shutdown();
+        System.out.println("Exported " + rows + " completions to " + args[1] + ".");
+    }
+
+    private Habit selectedSnapshot(Habit habit) {
+        if ((habitIds != null || habitNames != null)
+                && !(habitIds != null && habitIds.contains(habit.getId()))
+                && !(habitNames != null && habitNames.contains(habit.getName().toLowerCase(Locale.ROOT)))) {
+            return null;
+        }
+        return habitService.snapshotHabit(habit.getId());
+    }
+
+    private long firstDay() {
+        return fromDate == null ? Long.MIN_VALUE : fromDate.toEpochDay();
+    }
+
+    private long lastDay() {
+        return toDate == null ? Long.MAX_VALUE : toDate.toEpochDay();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0
+                && value.equals(value.trim())) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: CompletionExporter <data file> <output.csv|output.jsonl>"
+            + " [--from yyyy-mm-dd] [--to yyyy-mm-dd] [--habit id|name]...");
+        System.exit(2);
+    }
+}
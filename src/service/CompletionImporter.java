@@ -0,0 +1,259 @@
+package service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import repository.HabitRepository;
+import repository.JsonSnapshotFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+public final class CompletionImporter {
+    private static final ObjectMapper OBJECT_MAPPER = JsonSnapshotFormat.createObjectMapper();
+
+    private CompletionImporter() {
+    }
+
+    public static ImportReport importFile(HabitService habitService, Path file, boolean createMissingHabits)
+            throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Iterable<CompletionRecord> records = isCsv(file) ? readCsv(reader) : readJsonLines(reader);
+            return habitService.importCompletions(records, createMissingHabits);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static Iterable<CompletionRecord> readCsv(BufferedReader reader) {
+        return () -> new LineIterator(reader) {
+            private int habitIdColumn = -1;
+            private int habitNameColumn = 0;
+            private int dateColumn = 1;
+            private boolean positional = true;
+
+            @Override
+            boolean isComment(String line) {
+                return line.trim().startsWith("#");
+            }
+
+            @Override
+            CompletionRecord parse(String line, int lineNumber, boolean firstLine) {
+                List<String> fields = splitCsvLine(line);
+                if (firstLine && readHeader(fields)) {
+                    return null;
+                }
+                if (fields.size() <= Math.max(dateColumn, Math.max(habitIdColumn, habitNameColumn))) {
+                    return CompletionRecord.invalid(lineNumber, "Expected habit and date columns.");
+                }
+
+                LocalDate date = parseDate(fields.get(dateColumn));
+                String habit = habitNameColumn >= 0 ? fields.get(habitNameColumn).trim() : "";
+                if (habitIdColumn >= 0 && !fields.get(habitIdColumn).isBlank()) {
+                    return habitIdRecord(lineNumber, fields.get(habitIdColumn), habit, date);
+                }
+                if (positional && isNumber(habit)) {
+                    return habitIdRecord(lineNumber, habit, null, date);
+                }
+                return CompletionRecord.forHabitName(lineNumber, habit, date);
+            }
+
+            private boolean readHeader(List<String> fields) {
+                int idColumn = -1;
+                int nameColumn = -1;
+                int dateIndex = -1;
+                for (int i = 0; i < fields.size(); i++) {
+                    String header = fields.get(i).trim().toLowerCase(Locale.ROOT);
+                    if (header.equals("habitid") || header.equals("id")) {
+                        idColumn = i;
+                    } else if (header.equals("habit") || header.equals("name")) {
+                        nameColumn = i;
+                    } else if (header.equals("date")) {
+                        dateIndex = i;
+                    }
+                }
+                if (dateIndex < 0) {
+                    return false;
+                }
+
+                habitIdColumn = idColumn;
+                habitNameColumn = nameColumn;
+                dateColumn = dateIndex;
+                positional = false;
+                return true;
+            }
+        };
+    }
+
+    public static Iterable<CompletionRecord> readJsonLines(BufferedReader reader) {
+        return () -> new LineIterator(reader) {
+            @Override
+            CompletionRecord parse(String line, int lineNumber, boolean firstLine) {
+                JsonNode node;
+                try {
+                    node = OBJECT_MAPPER.readTree(line);
+                } catch (IOException e) {
+                    return CompletionRecord.invalid(lineNumber, "Line is not valid JSON.");
+                }
+                if (node == null || !node.isObject()) {
+                    return CompletionRecord.invalid(lineNumber, "Line is not a JSON object.");
+                }
+
+                LocalDate date = parseDate(node.path("date").asText(""));
+                JsonNode habitName = node.has("habit") ? node.get("habit") : node.get("name");
+                String name = habitName == null || habitName.isNull() ? null : habitName.asText();
+                JsonNode habitId = node.get("habitId");
+                if (habitId != null && !habitId.isNull()) {
+                    return habitIdRecord(lineNumber, habitId.asText(), name, date);
+                }
+                return CompletionRecord.forHabitName(lineNumber, name, date);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--create-missing"))) {
+            System.err.println("Usage: CompletionImporter <data file> <completions.csv|completions.jsonl> [--create-missing]");
+            System.exit(2);
+        }
+
+        HabitRepository repository = HabitRepository.forPath(args[0], Boolean.getBoolean("habittracker.journal"));
+        HabitService habitService = new HabitService(repository);
+        habitService.loadHabits();
+        if (habitService.getLoadWarningMessage() != null) {
+            System.err.println(habitService.getLoadWarningMessage());
+            System.exit(1);
+        }
+
+        ImportReport report = importFile(habitService, Path.of(args[1]), args.length == 3);
+        habitService.shutdown();
+        report.getErrors().forEach(System.err::println);
+        System.out.println(report.getMessage());
+        if (!report.isSaved()) {
+            System.exit(1);
+        }
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static CompletionRecord habitIdRecord(int lineNumber, String habitId, String habitName, LocalDate date) {
+        try {
+            int id = Integer.parseInt(habitId.trim());
+            return habitName == null || habitName.isBlank()
+                ? CompletionRecord.forHabitId(lineNumber, id, date)
+                : CompletionRecord.forHabit(lineNumber, id, habitName, date);
+        } catch (NumberFormatException e) {
+            return CompletionRecord.invalid(lineNumber, "Habit id is not a number.");
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private abstract static class LineIterator implements Iterator<CompletionRecord> {
+        private final BufferedReader reader;
+        private CompletionRecord next;
+        private int lineNumber;
+        private boolean contentSeen;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        abstract CompletionRecord parse(String line, int lineNumber, boolean firstLine);
+
+        boolean isComment(String line) {
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    lineNumber++;
+                    if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                        line = line.substring(1);
+                    }
+                    if (!line.isBlank() && !isComment(line)) {
+                        next = parse(line, lineNumber, !contentSeen);
+                        contentSeen = true;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public CompletionRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CompletionRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+
+import java.time.LocalDate;
+
+public class CompletionRecord {
+    private final int lineNumber;
+    private final Integer habitId;
+    private final String habitName;
+    private final LocalDate date;
+    private final String error;
+
+    private CompletionRecord(int lineNumber, Integer habitId, String habitName, LocalDate date, String error) {
+        this.lineNumber = lineNumber;
+        this.habitId = habitId;
+        this.habitName = habitName;
+        this.date = date;
+        this.error = error;
+    }
+
+    public static CompletionRecord forHabitId(int lineNumber, int habitId, LocalDate date) {
+        return new CompletionRecord(lineNumber, habitId, null, date, null);
+    }
+
+    public static CompletionRecord forHabit(int lineNumber, int habitId, String habitName, LocalDate date) {
+        return new CompletionRecord(lineNumber, habitId, habitName, date, null);
+    }
+
+    public static CompletionRecord forHabitName(int lineNumber, String habitName, LocalDate date) {
+        return new CompletionRecord(lineNumber, null, habitName, date, null);
+    }
+
+    public static CompletionRecord invalid(int lineNumber, String error) {
+        return new CompletionRecord(lineNumber, null, null, null, error);
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public Integer getHabitId() {
+        return habitId;
+    }
+
+    public String getHabitName() {
+        return habitName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,89 @@
+package service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class DayRolloverScheduler {
+    private static final long MARGIN_MILLIS = 50;
+    private static final long MAX_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Supplier<Clock> clockSupplier;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Runnable task;
+
+    private ScheduledFuture<?> pending;
+    private boolean stopped;
+
+    public DayRolloverScheduler(Supplier<Clock> clockSupplier, Runnable task) {
+        this(clockSupplier, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "habit-day-rollover");
+            thread.setDaemon(true);
+            return thread;
+        }), task, true);
+    }
+
+    public DayRolloverScheduler(Supplier<Clock> clockSupplier, ScheduledExecutorService scheduler, Runnable task) {
+        this(clockSupplier, scheduler, task, false);
+    }
+
+    private DayRolloverScheduler(Supplier<Clock> clockSupplier, ScheduledExecutorService scheduler, Runnable task,
+                                 boolean ownsScheduler) {
+        this.clockSupplier = clockSupplier;
+        this.scheduler = scheduler;
+        this.task = task;
+        this.ownsScheduler = ownsScheduler;
+    }
+
+    public synchronized void start() {
+        if (!stopped && pending == null) {
+            scheduleNext();
+        }
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    public static long millisUntilNextDay(Clock clock) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime nextMidnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        return Math.max(0, Duration.between(now, nextMidnight).toMillis());
+    }
+
+    private void scheduleNext() {
+        long delay = Math.min(MAX_DELAY_MILLIS, millisUntilNextDay(clockSupplier.get()) + MARGIN_MILLIS);
+        try {
+            pending = scheduler.schedule(this::runTask, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending = null;
+        }
+    }
+
+    private void runTask() {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Day rollover failed: " + e.getMessage());
+        }
+        synchronized (this) {
+            if (!stopped) {
+                scheduleNext();
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package service;
+
+import model.CompletionSet;
+import model.Habit;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HabitAnalytics {
+    public static final int ALL_HABITS = 0;
+
+    private static final long NO_CREATED_DAY = Long.MIN_VALUE;
+
+    private final CompletionCounter completionCounter;
+    private final Map<Integer, HabitRollup> habitRollups;
+    private HabitRollup globalRollup;
+    private CountIndex completionsByDay;
+    private CountIndex habitsByCreatedDay;
+    private CountIndex createdDaySums;
+
+    public HabitAnalytics(CompletionCounter completionCounter) {
+        this.completionCounter = completionCounter;
+        this.habitRollups = new HashMap<>();
+        clear();
+    }
+
+    public synchronized void rebuild(Collection<Habit> habits) {
+        clear();
+        for (Habit habit : habits) {
+            habitAdded(habit);
+        }
+    }
+
+    public synchronized void habitAdded(Habit habit) {
+        HabitRollup rollup = new HabitRollup(habit.getCreatedDate());
+        habitRollups.put(habit.getId(), rollup);
+        if (rollup.createdDay != NO_CREATED_DAY) {
+            habitsByCreatedDay.add(rollup.createdDay, 1);
+            createdDaySums.add(rollup.createdDay, rollup.createdDay);
+        }
+
+        CompletionSet completions = habit.readCompletions();
+        for (long day = completions.nextDay(Long.MIN_VALUE); day != CompletionSet.NONE;
+             day = completions.nextDay(day + 1)) {
+            addCompletion(rollup, day, 1);
+        }
+    }
+
+    public synchronized void habitRemoved(Habit habit) {
+        HabitRollup rollup = habitRollups.remove(habit.getId());
+        if (rollup == null) {
+            return;
+        }
+        if (rollup.createdDay != NO_CREATED_DAY) {
+            habitsByCreatedDay.add(rollup.createdDay, -1);
+            createdDaySums.add(rollup.createdDay, -rollup.createdDay);
+        }
+
+        CompletionSet completions = habit.readCompletions();
+        for (long day = completions.nextDay(Long.MIN_VALUE); day != CompletionSet.NONE;
+             day = completions.nextDay(day + 1)) {
+            addCompletion(rollup, day, -1);
+        }
+    }
+
+    public synchronized void completionAdded(Habit habit, LocalDate date) {
+        HabitRollup rollup = habitRollups.get(habit.getId());
+        if (rollup != null) {
+            addCompletion(rollup, date.toEpochDay(), 1);
+        }
+    }
+
+    public synchronized void completionRemoved(Habit habit, LocalDate date) {
+        HabitRollup rollup = habitRollups.get(habit.getId());
+        if (rollup != null) {
+            addCompletion(rollup, date.toEpochDay(), -1);
+        }
+    }
+
+    public synchronized int getWeekCount(int habitId, LocalDate dayInWeek) {
+        HabitRollup rollup = rollupFor(habitId);
+        return rollup == null ? 0 : (int) rollup.weeks.get(weekOf(dayInWeek.toEpochDay()));
+    }
+
+    public synchronized int getMonthCount(int habitId, YearMonth month) {
+        HabitRollup rollup = rollupFor(habitId);
+        return rollup == null ? 0 : (int) rollup.months.get(monthOf(month));
+    }
+
+    public synchronized int[] getWeekdayCounts(int habitId) {
+        HabitRollup rollup = rollupFor(habitId);
+        return rollup == null ? new int[7] : rollup.weekdays.clone();
+    }
+
+    public synchronized int getCompletedCount(LocalDate from, LocalDate to) {
+        return (int) completionsByDay.sum(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public double getCompletionPercentage(int habitId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return 0.0;
+        }
+        if (habitId == ALL_HABITS) {
+            return overallCompletionPercentage(from.toEpochDay(), to.toEpochDay());
+        }
+
+        long createdDay;
+        synchronized (this) {
+            HabitRollup rollup = habitRollups.get(habitId);
+            if (rollup == null || rollup.createdDay == NO_CREATED_DAY) {
+                return 0.0;
+            }
+            createdDay = rollup.createdDay;
+        }
+        long first = Math.max(from.toEpochDay(), createdDay);
+        long last = to.toEpochDay();
+        if (first > last) {
+            return 0.0;
+        }
+        int completed = completionCounter.countCompleted(habitId, first, last);
+        return percentage(completed, last - first + 1);
+    }
+
+    private synchronized double overallCompletionPercentage(long first, long last) {
+        long createdBefore = habitsByCreatedDay.sum(Long.MIN_VALUE, first - 1);
+        long createdWithin = habitsByCreatedDay.sum(first, last);
+        long createdWithinDaySum = createdDaySums.sum(first, last);
+        long activeDays = createdBefore * (last - first + 1) + createdWithin * (last + 1) - createdWithinDaySum;
+        if (activeDays <= 0) {
+            return 0.0;
+        }
+        return percentage(completionsByDay.sum(first, last), activeDays);
+    }
+
+    private HabitRollup rollupFor(int habitId) {
+        return habitId == ALL_HABITS ? globalRollup : habitRollups.get(habitId);
+    }
+
+    private void clear() {
+        habitRollups.clear();
+        globalRollup = new HabitRollup(null);
+        completionsByDay = new CountIndex();
+        habitsByCreatedDay = new CountIndex();
+        createdDaySums = new CountIndex();
+    }
+
+    private void addCompletion(HabitRollup rollup, long day, int delta) {
+        long week = weekOf(day);
+        long month = monthOf(YearMonth.from(LocalDate.ofEpochDay(day)));
+        int weekday = (int) Math.floorMod(day + 3, 7L);
+
+        rollup.weeks.add(week, delta);
+        rollup.months.add(month, delta);
+        rollup.weekdays[weekday] += delta;
+        globalRollup.weeks.add(week, delta);
+        globalRollup.months.add(month, delta);
+        globalRollup.weekdays[weekday] += delta;
+        completionsByDay.add(day, delta);
+    }
+
+    private static long weekOf(long epochDay) {
+        return Math.floorDiv(epochDay + 3, 7L);
+    }
+
+    private static long monthOf(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static double percentage(long completed, long days) {
+        double rate = Math.min(100.0, (completed * 100.0) / days);
+        return Math.round(rate * 100.0) / 100.0;
+    }
+
+    public interface CompletionCounter {
+        int countCompleted(int habitId, long firstDay, long lastDay);
+    }
+
+    private static class HabitRollup {
+        private final long createdDay;
+        private final CountIndex weeks;
+        private final CountIndex months;
+        private final int[] weekdays;
+
+        private HabitRollup(LocalDate createdDate) {
+            this.createdDay = createdDate == null ? NO_CREATED_DAY : createdDate.toEpochDay();
+            this.weeks = new CountIndex();
+            this.months = new CountIndex();
+            this.weekdays = new int[7];
+        }
+    }
+
+    private static class CountIndex {
+        private static final int MIN_MARGIN = 32;
+
+        private long origin;
+        private long[] values;
+        private long[] tree;
+
+        private CountIndex() {
+            this.values = new long[0];
+            this.tree = new long[1];
+        }
+
+        private void add(long bucket, long delta) {
+            if (delta == 0) {
+                return;
+            }
+            ensureRange(bucket);
+            int index = (int) (bucket - origin);
+            values[index] += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private long get(long bucket) {
+            if (values.length == 0 || bucket < origin || bucket - origin >= values.length) {
+                return 0;
+            }
+            return values[(int) (bucket - origin)];
+        }
+
+        private long sum(long fromBucket, long toBucket) {
+            if (toBucket < fromBucket) {
+                return 0;
+            }
+            return prefix(toBucket) - (fromBucket == Long.MIN_VALUE ? 0 : prefix(fromBucket - 1));
+        }
+
+        private long prefix(long bucket) {
+            if (values.length == 0 || bucket < origin) {
+                return 0;
+            }
+            int index = (int) Math.min(bucket - origin, values.length - 1L);
+            long total = 0;
+            for (int i = index + 1; i > 0; i -= i & -i) {
+                total += tree[i];
+            }
+            return total;
+        }
+
+        private void ensureRange(long bucket) {
+            if (values.length > 0 && bucket >= origin && bucket - origin < values.length) {
+                return;
+            }
+
+            int margin = Math.max(MIN_MARGIN, values.length / 2);
+            long newOrigin = values.length == 0 ? bucket - margin : Math.min(origin, bucket - margin);
+            long newEnd = values.length == 0 ? bucket + margin : Math.max(origin + values.length, bucket + margin);
+            long[] resized = new long[(int) (newEnd - newOrigin)];
+            if (values.length > 0) {
+                System.arraycopy(values, 0, resized, (int) (origin - newOrigin), values.length);
+            }
+
+            origin = newOrigin;
+            values = resized;
+            tree = new long[resized.length + 1];
+            for (int i = 1; i < tree.length; i++) {
+                tree[i] += values[i - 1];
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+    }
+}
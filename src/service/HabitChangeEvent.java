@@ -0,0 +1,39 @@
+package service;
+
+import java.time.LocalDate;
+
+public class HabitChangeEvent {
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED,
+        RELOADED,
+        DAY_CHANGED
+    }
+
+    private final Type type;
+    private final int habitId;
+    private final LocalDate date;
+
+    public HabitChangeEvent(Type type, int habitId) {
+        this(type, habitId, null);
+    }
+
+    public HabitChangeEvent(Type type, int habitId, LocalDate date) {
+        this.type = type;
+        this.habitId = habitId;
+        this.date = date;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getHabitId() {
+        return habitId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+}
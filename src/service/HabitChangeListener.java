@@ -0,0 +1,5 @@
+package service;
+
+public interface HabitChangeListener {
+    void habitChanged(HabitChangeEvent event);
+}
@@ -0,0 +1,119 @@
+package service;
+
+import model.Habit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class HabitSearchIndex {
+    private static final int SCAN_RATIO = 4;
+
+    private final Map<Long, IdList> postings;
+
+    HabitSearchIndex() {
+        this.postings = new HashMap<>();
+    }
+
+    void rebuild(Collection<Habit> habits) {
+        postings.clear();
+        for (Habit habit : habits) {
+            add(habit);
+        }
+    }
+
+    void add(Habit habit) {
+        for (long trigram : trigrams(normalize(habit.getName()))) {
+            postings.computeIfAbsent(trigram, key -> new IdList()).add(habit.getId());
+        }
+    }
+
+    void remove(Habit habit) {
+        for (long trigram : trigrams(normalize(habit.getName()))) {
+            IdList ids = postings.get(trigram);
+            if (ids != null && ids.remove(habit.getId()) && ids.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    List<Habit> search(String query, List<Habit> sortedHabits, Map<Integer, Habit> habitsById,
+                       Comparator<Habit> order) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return sortedHabits;
+        }
+
+        IdList rarest = null;
+        for (long trigram : trigrams(needle)) {
+            IdList ids = postings.get(trigram);
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            if (rarest == null || ids.size < rarest.size) {
+                rarest = ids;
+            }
+        }
+
+        List<Habit> matches = new ArrayList<>();
+        if (rarest == null || rarest.size * SCAN_RATIO > sortedHabits.size()) {
+            for (Habit habit : sortedHabits) {
+                if (normalize(habit.getName()).contains(needle)) {
+                    matches.add(habit);
+                }
+            }
+            return matches;
+        }
+
+        for (int i = 0; i < rarest.size; i++) {
+            Habit habit = habitsById.get(rarest.ids[i]);
+            if (habit != null && normalize(habit.getName()).contains(needle)) {
+                matches.add(habit);
+            }
+        }
+        matches.sort(order);
+        return matches;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(ids, 0, grown, 0, size);
+                ids = grown;
+            }
+            ids[size++] = id;
+        }
+
+        private boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
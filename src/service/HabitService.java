@@ -1,160 +1,916 @@
 package service;
 
+import metrics.ServiceOperationEvent;
+import metrics.Timing;
+import model.CompletionSet;
 import model.Habit;
 import repository.HabitRepository;
+import repository.JournalEntry;
+import repository.WriteBehindSaver;
 
 import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class HabitService {
+    private static final Comparator<Habit> NAME_ORDER = Comparator
+        .comparing(Habit::getName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparingInt(Habit::getId);
+    private static final Comparator<Habit> ID_ORDER = Comparator.comparingInt(Habit::getId);
+    private static final int LOCK_STRIPES = 64;
+
     private final HabitRepository habitRepository;
-    private List<Habit> habits;
-    private int nextId;
-    private String loadWarningMessage;
+    private final WriteBehindSaver changeSaver;
+    private final boolean writeBehind;
+    private final Map<Integer, Habit> habitsById;
+    private final Map<String, Habit> habitsByName;
+    private final List<HabitChangeListener> changeListeners;
+    private final Object structureLock;
+    private final Object[] habitLocks;
+    private final ReadWriteLock counterLock;
+    private final AtomicInteger nextId;
+    private final AtomicInteger completedTodayCount;
+    private final DoubleAdder completionRateSum;
+    private final HabitAnalytics analytics;
+    private final HabitSearchIndex searchIndex;
+    private final ServiceMetrics metrics;
+    private final ChangeHistory history;
+    private final AtomicReference<LocalDate> announcedDate;
+    private volatile Clock clock;
+    private volatile NavigableSet<Habit> sortedHabits;
+    private volatile long sortedVersion;
+    private volatile SortedView sortedView;
+    private volatile String loadWarningMessage;
+    private volatile LocalDate counterDate;
+    private volatile long counterValidFrom;
+    private volatile long counterValidUntil;
+    private volatile boolean analyticsBuilt;
+    private boolean searchIndexBuilt;
 
     public HabitService(HabitRepository habitRepository) {
+        this(habitRepository, 0);
+    }
+
+    public HabitService(HabitRepository habitRepository, long writeBehindMillis) {
+        this(habitRepository, writeBehindMillis, null);
+    }
+
+    public HabitService(HabitRepository habitRepository, long writeBehindMillis, ScheduledExecutorService saveScheduler) {
+        this(habitRepository, writeBehindMillis, saveScheduler, Clock.systemDefaultZone());
+    }
+
+    public HabitService(HabitRepository habitRepository, long writeBehindMillis, ScheduledExecutorService saveScheduler,
+                        Clock clock) {
         this.habitRepository = habitRepository;
-        this.habits = new ArrayList<>();
-        this.nextId = 1;
+        this.writeBehind = writeBehindMillis > 0;
+        this.changeSaver = writeBehind && saveScheduler != null
+            ? new WriteBehindSaver(habitRepository, this::snapshotHabits, writeBehindMillis, saveScheduler)
+            : new WriteBehindSaver(habitRepository, this::snapshotHabits, writeBehindMillis);
+        this.habitsById = new ConcurrentHashMap<>();
+        this.habitsByName = new HashMap<>();
+        this.changeListeners = new CopyOnWriteArrayList<>();
+        this.structureLock = new Object();
+        this.habitLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            habitLocks[i] = new Object();
+        }
+        this.counterLock = new ReentrantReadWriteLock();
+        this.nextId = new AtomicInteger(1);
+        this.completedTodayCount = new AtomicInteger();
+        this.completionRateSum = new DoubleAdder();
+        this.analytics = new HabitAnalytics(this::countCompleted);
+        this.searchIndex = new HabitSearchIndex();
+        this.metrics = new ServiceMetrics();
+        this.history = new ChangeHistory(ChangeHistory.DEFAULT_LIMIT);
+        this.announcedDate = new AtomicReference<>();
+        this.clock = clock;
+        this.sortedHabits = new ConcurrentSkipListSet<>(NAME_ORDER);
     }
 
     public void loadHabits() {
-        HabitRepository.LoadResult result = habitRepository.loadHabits();
-        habits = result.getHabits();
-        loadWarningMessage = result.getWarningMessage();
-
-        nextId = 1;
-        for (Habit habit : habits) {
-            if (habit.getId() >= nextId) {
-                nextId = habit.getId() + 1;
-            }
-            if (habit.getCompletedDates() == null) {
-                habit.setCompletedDates(new ArrayList<>());
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.LOAD);
+        try {
+            HabitRepository.LoadResult result = habitRepository.loadHabits();
+
+            counterLock.writeLock().lock();
+            try {
+                synchronized (structureLock) {
+                    loadWarningMessage = result.getWarningMessage();
+                    habitsById.clear();
+                    habitsByName.clear();
+                    int maxId = 0;
+                    List<Habit> sorted = new ArrayList<>(result.getHabits().size());
+                    for (Habit habit : result.getHabits()) {
+                        if (habitsById.put(habit.getId(), habit) == null) {
+                            sorted.add(habit);
+                        }
+                        habitsByName.putIfAbsent(normalizeName(habit.getName()), habit);
+                        maxId = Math.max(maxId, habit.getId());
+                    }
+                    nextId.set(maxId + 1);
+
+                    NavigableSet<Habit> loaded = new ConcurrentSkipListSet<>(NAME_ORDER);
+                    loaded.addAll(sorted);
+                    sortedHabits = loaded;
+                    sortedVersion++;
+                    searchIndex.rebuild(Collections.emptyList());
+                    searchIndexBuilt = false;
+                    LocalDate today = LocalDate.now(clock);
+                    rebaseCounters(today);
+                    announcedDate.set(today);
+                    analyticsBuilt = false;
+                    history.clear();
+                }
+            } finally {
+                counterLock.writeLock().unlock();
             }
+            fireChange(HabitChangeEvent.Type.RELOADED, 0);
+        } finally {
+            timing.stop();
         }
     }
 
+    public void addChangeListener(HabitChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(HabitChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        counterValidUntil = Long.MIN_VALUE;
+    }
+
+    public LocalDate today() {
+        return currentDate();
+    }
+
+    public boolean rollOverDay() {
+        LocalDate today = currentDate();
+        if (today.equals(announcedDate.getAndSet(today))) {
+            return false;
+        }
+        fireChange(new HabitChangeEvent(HabitChangeEvent.Type.DAY_CHANGED, 0, today));
+        return true;
+    }
+
     public String getLoadWarningMessage() {
         return loadWarningMessage;
     }
 
     public List<Habit> getAllHabits() {
-        List<Habit> copy = new ArrayList<>(habits);
-        copy.sort(Comparator.comparing(Habit::getName, String.CASE_INSENSITIVE_ORDER));
-        return copy;
+        SortedView view = sortedView;
+        long version = sortedVersion;
+        if (view != null && view.version == version) {
+            return view.habits;
+        }
+
+        List<Habit> habits = Collections.unmodifiableList(new ArrayList<>(sortedHabits));
+        sortedView = new SortedView(version, habits);
+        return habits;
     }
 
     public Habit findHabitById(int id) {
-        for (Habit habit : habits) {
-            if (habit.getId() == id) {
-                return habit;
-            }
+        return habitsById.get(id);
+    }
+
+    public Habit findHabitByName(String name) {
+        synchronized (structureLock) {
+            return name == null ? null : habitsByName.get(normalizeName(name.trim()));
         }
-        return null;
     }
 
-    public ServiceResult addHabit(String habitName) {
-        String cleaned = cleanHabitName(habitName);
-        if (cleaned == null) {
-            return new ServiceResult(false, "Habit name must be 1 to 50 characters.");
+    public HabitSummary summarizeHabit(int id) {
+        LocalDate today = currentDate();
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            return habit == null ? null : new HabitSummary(habit, today);
         }
-        if (isDuplicateName(cleaned, -1)) {
-            return new ServiceResult(false, "Habit name already exists.");
+    }
+
+    public List<Habit> searchHabits(String query) {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.SEARCH);
+        try {
+            synchronized (structureLock) {
+                if (!searchIndexBuilt) {
+                    searchIndex.rebuild(sortedHabits);
+                    searchIndexBuilt = true;
+                }
+                return searchIndex.search(query, getAllHabits(), habitsById, NAME_ORDER);
+            }
+        } finally {
+            timing.stop();
         }
+    }
 
-        Habit habit = new Habit(nextId++, cleaned, LocalDate.now(), new ArrayList<>());
-        habits.add(habit);
+    public ServiceResult addHabit(String habitName) {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.ADD);
+        try {
+            String cleaned = cleanHabitName(habitName);
+            if (cleaned == null) {
+                return new ServiceResult(false, "Habit name must be 1 to 50 characters.");
+            }
 
-        return saveWithMessage("Habit added.");
+            LocalDate today = currentDate();
+            Habit habit;
+            counterLock.readLock().lock();
+            try {
+                synchronized (structureLock) {
+                    if (isDuplicateName(cleaned, -1)) {
+                        return new ServiceResult(false, "Habit name already exists.");
+                    }
+
+                    habit = new Habit(nextId.getAndIncrement(), cleaned, today, new ArrayList<>());
+                    insertHabit(habit);
+                    history.record(ChangeHistory.Change.added(habit));
+                }
+            } finally {
+                counterLock.readLock().unlock();
+            }
+
+            fireChange(HabitChangeEvent.Type.ADDED, habit.getId());
+            return saveResult("Habit added.");
+        } finally {
+            timing.stop();
+        }
     }
 
     public ServiceResult editHabit(int id, String newName) {
-        Habit habit = findHabitById(id);
-        if (habit == null) {
-            return new ServiceResult(false, "Habit not found.");
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.EDIT);
+        try {
+            String cleaned = cleanHabitName(newName);
+            synchronized (structureLock) {
+                Habit habit = findHabitById(id);
+                if (habit == null) {
+                    return new ServiceResult(false, "Habit not found.");
+                }
+                if (cleaned == null) {
+                    return new ServiceResult(false, "Habit name must be 1 to 50 characters.");
+                }
+                if (isDuplicateName(cleaned, id)) {
+                    return new ServiceResult(false, "Habit name already exists.");
+                }
+
+                String oldName = habit.getName();
+                renameHabit(habit, cleaned);
+                if (!oldName.equals(cleaned)) {
+                    history.record(ChangeHistory.Change.renamed(id, oldName, cleaned));
+                }
+            }
+
+            fireChange(HabitChangeEvent.Type.UPDATED, id);
+            return saveResult("Habit updated.");
+        } finally {
+            timing.stop();
         }
+    }
 
-        String cleaned = cleanHabitName(newName);
-        if (cleaned == null) {
-            return new ServiceResult(false, "Habit name must be 1 to 50 characters.");
+    public ServiceResult deleteHabit(int id) {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.DELETE);
+        try {
+            checkDayRollover();
+            counterLock.readLock().lock();
+            try {
+                synchronized (structureLock) {
+                    Habit habit = removeHabit(id);
+                    if (habit == null) {
+                        return new ServiceResult(false, "Habit not found.");
+                    }
+                    history.record(ChangeHistory.Change.deleted(habit));
+                }
+            } finally {
+                counterLock.readLock().unlock();
+            }
+
+            fireChange(HabitChangeEvent.Type.REMOVED, id);
+            return saveResult("Habit deleted.");
+        } finally {
+            timing.stop();
         }
-        if (isDuplicateName(cleaned, id)) {
-            return new ServiceResult(false, "Habit name already exists.");
+    }
+
+    public ServiceResult markHabitCompletedToday(int id) {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.MARK);
+        try {
+            LocalDate today = currentDate();
+            counterLock.readLock().lock();
+            try {
+                synchronized (lockFor(id)) {
+                    Habit habit = habitsById.get(id);
+                    if (habit == null) {
+                        return new ServiceResult(false, "Habit not found.");
+                    }
+                    if (!setCompleted(habit, today, true)) {
+                        return new ServiceResult(false, "Already marked for today.");
+                    }
+                    history.record(ChangeHistory.Change.marked(habit, today));
+                }
+            } finally {
+                counterLock.readLock().unlock();
+            }
+
+            fireChange(new HabitChangeEvent(HabitChangeEvent.Type.UPDATED, id, today));
+            return saveResult("Marked complete for today.");
+        } finally {
+            timing.stop();
         }
+    }
 
-        habit.setName(cleaned);
-        return saveWithMessage("Habit updated.");
+    public ServiceResult undo() {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.UNDO);
+        try {
+            return replay(false);
+        } finally {
+            timing.stop();
+        }
     }
 
-    public ServiceResult deleteHabit(int id) {
-        Habit habit = findHabitById(id);
-        if (habit == null) {
-            return new ServiceResult(false, "Habit not found.");
+    public ServiceResult redo() {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.REDO);
+        try {
+            return replay(true);
+        } finally {
+            timing.stop();
         }
+    }
 
-        habits.remove(habit);
-        return saveWithMessage("Habit deleted.");
+    public String getUndoDescription() {
+        ChangeHistory.Change change = history.peekUndo();
+        return change == null ? null : change.describe();
     }
 
-    public ServiceResult markHabitCompletedToday(int id) {
-        Habit habit = findHabitById(id);
-        if (habit == null) {
-            return new ServiceResult(false, "Habit not found.");
+    public String getRedoDescription() {
+        ChangeHistory.Change change = history.peekRedo();
+        return change == null ? null : change.describe();
+    }
+
+    public ImportReport importCompletions(Iterable<CompletionRecord> records, boolean createMissingHabits) {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.IMPORT);
+        try {
+            LocalDate today = currentDate();
+            ImportReport report = new ImportReport();
+            Map<Integer, List<CompletionRecord>> recordsById = new HashMap<>();
+            Map<String, List<CompletionRecord>> recordsByName = new LinkedHashMap<>();
+            for (CompletionRecord record : records) {
+                report.addRow();
+                String error = validateRecord(record, today);
+                if (error != null) {
+                    report.addError(record.getLineNumber(), error);
+                } else if (record.getHabitId() != null) {
+                    recordsById.computeIfAbsent(record.getHabitId(), id -> new ArrayList<>()).add(record);
+                } else {
+                    recordsByName.computeIfAbsent(normalizeName(record.getHabitName().trim()), name -> new ArrayList<>())
+                        .add(record);
+                }
+            }
+
+            List<HabitChangeEvent> changes = new ArrayList<>();
+            checkDayRollover();
+            counterLock.readLock().lock();
+            try {
+                Map<Habit, List<CompletionRecord>> recordsByHabit = new LinkedHashMap<>();
+                synchronized (structureLock) {
+                    history.clear();
+                    for (Map.Entry<Integer, List<CompletionRecord>> entry : recordsById.entrySet()) {
+                        Habit habit = habitsById.get(entry.getKey());
+                        if (habit == null) {
+                            for (CompletionRecord record : entry.getValue()) {
+                                if (record.getHabitName() == null || record.getHabitName().isBlank()) {
+                                    report.addError(record.getLineNumber(), "Habit not found.");
+                                } else {
+                                    recordsByName.computeIfAbsent(normalizeName(record.getHabitName().trim()),
+                                        name -> new ArrayList<>()).add(record);
+                                }
+                            }
+                        } else {
+                            recordsByHabit.computeIfAbsent(habit, key -> new ArrayList<>()).addAll(entry.getValue());
+                        }
+                    }
+                    for (List<CompletionRecord> named : recordsByName.values()) {
+                        Habit habit = habitsByName.get(normalizeName(named.get(0).getHabitName().trim()));
+                        if (habit == null && createMissingHabits) {
+                            habit = createImportedHabit(named, report);
+                            if (habit != null) {
+                                changes.add(new HabitChangeEvent(HabitChangeEvent.Type.ADDED, habit.getId()));
+                            }
+                        } else if (habit == null) {
+                            reportErrors(report, named, "Habit not found.");
+                        }
+                        if (habit != null) {
+                            recordsByHabit.computeIfAbsent(habit, key -> new ArrayList<>()).addAll(named);
+                        }
+                    }
+                }
+
+                for (Map.Entry<Habit, List<CompletionRecord>> entry : recordsByHabit.entrySet()) {
+                    if (mergeCompletions(entry.getKey(), entry.getValue(), report)) {
+                        changes.add(new HabitChangeEvent(HabitChangeEvent.Type.UPDATED, entry.getKey().getId()));
+                    }
+                }
+            } finally {
+                counterLock.readLock().unlock();
+            }
+
+            for (HabitChangeEvent change : changes) {
+                fireChange(change);
+            }
+
+            try {
+                if (!changes.isEmpty()) {
+                    changeSaver.compact();
+                }
+                report.setSaved(true);
+            } catch (IOException e) {
+                report.setSaved(false);
+            }
+            return report;
+        } finally {
+            timing.stop();
         }
+    }
 
-        boolean marked = habit.markCompleted(LocalDate.now());
-        if (!marked) {
-            return new ServiceResult(false, "Already marked for today.");
+    public HabitAnalytics getAnalytics() {
+        if (!analyticsBuilt) {
+            Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.ANALYTICS);
+            counterLock.writeLock().lock();
+            try {
+                if (!analyticsBuilt) {
+                    analytics.rebuild(habitsById.values());
+                    analyticsBuilt = true;
+                }
+            } finally {
+                counterLock.writeLock().unlock();
+                timing.stop();
+            }
         }
+        return analytics;
+    }
 
-        return saveWithMessage("Marked complete for today.");
+    public HabitTrends summarizeTrends(int habitId) {
+        LocalDate today = currentDate();
+        return new HabitTrends(getAnalytics(), habitId, today);
     }
 
     public int getTotalHabits() {
-        return habits.size();
+        return habitsById.size();
     }
 
     public double getAverageCompletionPercentage() {
-        if (habits.isEmpty()) {
+        checkDayRollover();
+        int total = habitsById.size();
+        if (total == 0) {
             return 0.0;
         }
 
-        double total = 0.0;
-        LocalDate today = LocalDate.now();
+        double average = completionRateSum.sum() / total;
+        return Math.round(average * 100.0) / 100.0;
+    }
 
-        for (Habit habit : habits) {
-            total += habit.getCompletionRate(today);
+    public int getHabitsCompletedTodayCount() {
+        checkDayRollover();
+        return completedTodayCount.get();
+    }
+
+    public List<Habit> snapshotHabits() {
+        List<Habit> snapshot = new ArrayList<>(habitsById.size());
+        for (Habit habit : habitsById.values()) {
+            synchronized (lockFor(habit.getId())) {
+                if (habitsById.get(habit.getId()) == habit) {
+                    snapshot.add(habit.copy());
+                }
+            }
         }
+        snapshot.sort(ID_ORDER);
+        return snapshot;
+    }
 
-        double average = total / habits.size();
-        return Math.round(average * 100.0) / 100.0;
+    public Habit snapshotHabit(int id) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            return habit == null ? null : habit.copy();
+        }
     }
 
-    public int getHabitsCompletedTodayCount() {
-        int count = 0;
-        LocalDate today = LocalDate.now();
+    public LocalDate getFirstCompletedDate(int id) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            if (habit == null || habit.getCompletedCount() == 0) {
+                return null;
+            }
+            return LocalDate.ofEpochDay(habit.getCompletions().firstDay());
+        }
+    }
 
-        for (Habit habit : habits) {
-            if (habit.getCompletedDates().contains(today)) {
-                count++;
+    public CompletionSet copyCompletions(int id, LocalDate from, LocalDate to) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            if (habit == null) {
+                return null;
+            }
+            CompletionSet completions = habit.getCompletions();
+            CompletionSet range = new CompletionSet(from.toEpochDay());
+            long lastDay = to.toEpochDay();
+            for (long day = completions.nextDay(from.toEpochDay()); day != CompletionSet.NONE && day <= lastDay;
+                 day = completions.nextDay(day + 1)) {
+                range.add(day);
             }
+            return range;
         }
+    }
 
-        return count;
+    public void flush() throws IOException {
+        Timing<ServiceOperationEvent> timing = metrics.time(ServiceMetrics.FLUSH);
+        try {
+            changeSaver.flush();
+        } finally {
+            timing.stop();
+        }
+    }
+
+    public void shutdown() throws IOException {
+        try {
+            changeSaver.shutdown();
+        } finally {
+            habitRepository.close();
+        }
     }
 
-    private ServiceResult saveWithMessage(String successMessage) {
+    private ServiceResult saveResult(String successMessage) {
         try {
-            habitRepository.saveHabits(habits);
+            if (writeBehind) {
+                if (changeSaver.takeFailure() != null) {
+                    return new ServiceResult(false, "Could not save data. Please try again.");
+                }
+            } else {
+                changeSaver.flush();
+            }
             return new ServiceResult(true, successMessage);
         } catch (IOException e) {
             return new ServiceResult(false, "Could not save data. Please try again.");
         }
     }
 
+    private ServiceResult replay(boolean redo) {
+        String action = redo ? "redo" : "undo";
+        ChangeHistory.Change change;
+        checkDayRollover();
+        counterLock.readLock().lock();
+        try {
+            synchronized (structureLock) {
+                change = redo ? history.takeRedo() : history.takeUndo();
+                if (change == null) {
+                    return new ServiceResult(false, "Nothing to " + action + ".");
+                }
+
+                String failure = apply(change, redo);
+                if (failure != null) {
+                    if (redo) {
+                        history.pushRedo(change);
+                    } else {
+                        history.pushUndo(change);
+                    }
+                    return new ServiceResult(false, "Could not " + action + " " + change.describe() + ". " + failure);
+                }
+                if (redo) {
+                    history.pushUndo(change);
+                } else {
+                    history.pushRedo(change);
+                }
+            }
+        } finally {
+            counterLock.readLock().unlock();
+        }
+
+        fireChange(replayEvent(change, redo));
+        return saveResult((redo ? "Redid " : "Undid ") + change.describe() + ".");
+    }
+
+    private String apply(ChangeHistory.Change change, boolean redo) {
+        switch (change.getKind()) {
+            case ADDED:
+                return redo ? restoreHabit(change.getHabit()) : discardHabit(change.getHabitId());
+            case DELETED:
+                return redo ? discardHabit(change.getHabitId()) : restoreHabit(change.getHabit());
+            case RENAMED:
+                return restoreName(change.getHabitId(), redo ? change.getNewName() : change.getOldName());
+            default:
+                return restoreCompletion(change.getHabitId(), change.getDate(), redo);
+        }
+    }
+
+    private HabitChangeEvent replayEvent(ChangeHistory.Change change, boolean redo) {
+        switch (change.getKind()) {
+            case ADDED:
+                return new HabitChangeEvent(redo ? HabitChangeEvent.Type.ADDED : HabitChangeEvent.Type.REMOVED,
+                    change.getHabitId());
+            case DELETED:
+                return new HabitChangeEvent(redo ? HabitChangeEvent.Type.REMOVED : HabitChangeEvent.Type.ADDED,
+                    change.getHabitId());
+            case RENAMED:
+                return new HabitChangeEvent(HabitChangeEvent.Type.UPDATED, change.getHabitId());
+            default:
+                return new HabitChangeEvent(HabitChangeEvent.Type.UPDATED, change.getHabitId(), change.getDate());
+        }
+    }
+
+    private String restoreHabit(Habit habit) {
+        if (habitsById.containsKey(habit.getId())) {
+            return "Habit already exists.";
+        }
+        if (isDuplicateName(habit.getName(), habit.getId())) {
+            return "Habit name already exists.";
+        }
+        insertHabit(habit);
+        return null;
+    }
+
+    private String discardHabit(int id) {
+        return removeHabit(id) == null ? "Habit not found." : null;
+    }
+
+    private String restoreName(int id, String name) {
+        Habit habit = habitsById.get(id);
+        if (habit == null) {
+            return "Habit not found.";
+        }
+        if (isDuplicateName(name, id)) {
+            return "Habit name already exists.";
+        }
+        renameHabit(habit, name);
+        return null;
+    }
+
+    private String restoreCompletion(int id, LocalDate date, boolean completed) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            if (habit == null) {
+                return "Habit not found.";
+            }
+            if (!setCompleted(habit, date, completed)) {
+                return completed ? "Already marked for " + date + "." : "Not marked for " + date + ".";
+            }
+            return null;
+        }
+    }
+
+    private void insertHabit(Habit habit) {
+        synchronized (lockFor(habit.getId())) {
+            changeSaver.submit(JournalEntry.added(habit));
+            CompletionSet completions = habit.getCompletions();
+            for (long day = completions.nextDay(Long.MIN_VALUE); day != CompletionSet.NONE;
+                 day = completions.nextDay(day + 1)) {
+                changeSaver.submit(JournalEntry.marked(habit.getId(), LocalDate.ofEpochDay(day)));
+            }
+            habitsById.put(habit.getId(), habit);
+            indexHabit(habit);
+            adjustCounters(habit, 1);
+            if (analyticsBuilt) {
+                analytics.habitAdded(habit);
+            }
+        }
+    }
+
+    private Habit removeHabit(int id) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.remove(id);
+            if (habit == null) {
+                return null;
+            }
+            adjustCounters(habit, -1);
+            unindexHabit(habit);
+            if (analyticsBuilt) {
+                analytics.habitRemoved(habit);
+            }
+            changeSaver.submit(JournalEntry.deleted(id));
+            return habit;
+        }
+    }
+
+    private void renameHabit(Habit habit, String name) {
+        synchronized (lockFor(habit.getId())) {
+            unindexHabit(habit);
+            habit.setName(name);
+            indexHabit(habit);
+            changeSaver.submit(JournalEntry.edited(habit));
+        }
+    }
+
+    private boolean setCompleted(Habit habit, LocalDate date, boolean completed) {
+        if (habit.isCompletedOn(date) == completed) {
+            return false;
+        }
+
+        adjustCounters(habit, -1);
+        if (completed) {
+            habit.markCompleted(date);
+        } else {
+            habit.unmarkCompleted(date);
+        }
+        adjustCounters(habit, 1);
+        if (analyticsBuilt) {
+            if (completed) {
+                analytics.completionAdded(habit, date);
+            } else {
+                analytics.completionRemoved(habit, date);
+            }
+        }
+        changeSaver.submit(completed ? JournalEntry.marked(habit.getId(), date)
+            : JournalEntry.unmarked(habit.getId(), date));
+        return true;
+    }
+
+    private String validateRecord(CompletionRecord record, LocalDate today) {
+        if (record.getError() != null) {
+            return record.getError();
+        }
+        if (record.getHabitId() == null && (record.getHabitName() == null || record.getHabitName().isBlank())) {
+            return "Habit is missing.";
+        }
+        if (record.getDate() == null) {
+            return "Date is missing or invalid.";
+        }
+        if (record.getDate().isAfter(today)) {
+            return "Date is in the future.";
+        }
+        return null;
+    }
+
+    private void reportErrors(ImportReport report, List<CompletionRecord> records, String message) {
+        for (CompletionRecord record : records) {
+            report.addError(record.getLineNumber(), message);
+        }
+    }
+
+    private Habit createImportedHabit(List<CompletionRecord> records, ImportReport report) {
+        String cleaned = cleanHabitName(records.get(0).getHabitName());
+        if (cleaned == null) {
+            reportErrors(report, records, "Habit name must be 1 to 50 characters.");
+            return null;
+        }
+
+        LocalDate createdDate = records.get(0).getDate();
+        for (CompletionRecord record : records) {
+            if (record.getDate().isBefore(createdDate)) {
+                createdDate = record.getDate();
+            }
+        }
+
+        Habit habit = new Habit(nextId.getAndIncrement(), cleaned, createdDate, new ArrayList<>());
+        synchronized (lockFor(habit.getId())) {
+            changeSaver.submit(JournalEntry.added(habit));
+            habitsById.put(habit.getId(), habit);
+            indexHabit(habit);
+            adjustCounters(habit, 1);
+            if (analyticsBuilt) {
+                analytics.habitAdded(habit);
+            }
+        }
+        report.addCreatedHabit();
+        return habit;
+    }
+
+    private boolean mergeCompletions(Habit habit, List<CompletionRecord> records, ImportReport report) {
+        LocalDate earliest = null;
+        for (CompletionRecord record : records) {
+            if (earliest == null || record.getDate().isBefore(earliest)) {
+                earliest = record.getDate();
+            }
+        }
+
+        synchronized (lockFor(habit.getId())) {
+            if (habitsById.get(habit.getId()) != habit) {
+                reportErrors(report, records, "Habit not found.");
+                return false;
+            }
+
+            adjustCounters(habit, -1);
+            if (analyticsBuilt) {
+                analytics.habitRemoved(habit);
+            }
+            boolean backdated = habit.getCreatedDate() == null || earliest.isBefore(habit.getCreatedDate());
+            if (backdated) {
+                habit.setCreatedDate(earliest);
+            }
+            Set<LocalDate> dates = new LinkedHashSet<>();
+            for (CompletionRecord record : records) {
+                if (!habit.isCompletedOn(record.getDate())) {
+                    dates.add(record.getDate());
+                }
+            }
+            int added = habit.markCompleted(dates);
+            adjustCounters(habit, 1);
+            if (analyticsBuilt) {
+                analytics.habitAdded(habit);
+            }
+            if (backdated) {
+                changeSaver.submit(JournalEntry.edited(habit));
+            }
+            for (LocalDate date : dates) {
+                changeSaver.submit(JournalEntry.marked(habit.getId(), date));
+            }
+            report.addMerged(added, records.size() - added);
+            return added > 0 || backdated;
+        }
+    }
+
+    private int countCompleted(int id, long firstDay, long lastDay) {
+        synchronized (lockFor(id)) {
+            Habit habit = habitsById.get(id);
+            return habit == null ? 0 : habit.getCompletions().countInRange(firstDay, lastDay);
+        }
+    }
+
+    private Object lockFor(int id) {
+        return habitLocks[Math.floorMod(id, LOCK_STRIPES)];
+    }
+
+    private LocalDate currentDate() {
+        checkDayRollover();
+        return counterDate;
+    }
+
+    private void checkDayRollover() {
+        Clock current = clock;
+        long now = current.millis();
+        if (now < counterValidFrom || now >= counterValidUntil) {
+            ensureCountersCurrent(LocalDate.now(current));
+        }
+    }
+
+    private void ensureCountersCurrent(LocalDate today) {
+        if (today.equals(counterDate)) {
+            return;
+        }
+
+        counterLock.writeLock().lock();
+        try {
+            if (!today.equals(counterDate)) {
+                rebaseCounters(today);
+            }
+        } finally {
+            counterLock.writeLock().unlock();
+        }
+    }
+
+    private void rebaseCounters(LocalDate today) {
+        counterValidUntil = Long.MIN_VALUE;
+        counterDate = today;
+        completedTodayCount.set(0);
+        completionRateSum.reset();
+        for (Habit habit : habitsById.values()) {
+            adjustCounters(habit, 1);
+        }
+
+        ZoneId zone = clock.getZone();
+        counterValidFrom = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        counterValidUntil = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private void adjustCounters(Habit habit, int direction) {
+        LocalDate date = counterDate;
+        completionRateSum.add(direction * habit.getCompletionRate(date));
+        if (habit.isCompletedOn(date)) {
+            completedTodayCount.addAndGet(direction);
+        }
+    }
+
+    private void fireChange(HabitChangeEvent.Type type, int habitId) {
+        fireChange(new HabitChangeEvent(type, habitId));
+    }
+
+    private void fireChange(HabitChangeEvent event) {
+        for (HabitChangeListener listener : changeListeners) {
+            listener.habitChanged(event);
+        }
+    }
+
     private String cleanHabitName(String name) {
         if (name == null) {
             return null;
@@ -169,11 +925,41 @@ public class HabitService {
     }
 
     private boolean isDuplicateName(String name, int currentHabitId) {
-        for (Habit habit : habits) {
-            if (habit.getId() != currentHabitId && habit.getName().equalsIgnoreCase(name)) {
-                return true;
-            }
+        Habit existing = habitsByName.get(normalizeName(name));
+        return existing != null && existing.getId() != currentHabitId;
+    }
+
+    private String normalizeName(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    private void indexHabit(Habit habit) {
+        habitsByName.putIfAbsent(normalizeName(habit.getName()), habit);
+        if (searchIndexBuilt) {
+            searchIndex.add(habit);
+        }
+
+        sortedHabits.add(habit);
+        sortedVersion++;
+    }
+
+    private void unindexHabit(Habit habit) {
+        habitsByName.remove(normalizeName(habit.getName()), habit);
+        if (searchIndexBuilt) {
+            searchIndex.remove(habit);
+        }
+
+        sortedHabits.remove(habit);
+        sortedVersion++;
+    }
+
+    private static final class SortedView {
+        private final long version;
+        private final List<Habit> habits;
+
+        private SortedView(long version, List<Habit> habits) {
+            this.version = version;
+            this.habits = habits;
         }
-        return false;
     }
 }
@@ -0,0 +1,59 @@
+package service;
+
+import model.Habit;
+
+import java.time.LocalDate;
+
+public class HabitSummary {
+    private final int id;
+    private final String name;
+    private final LocalDate createdDate;
+    private final int completedCount;
+    private final int currentStreak;
+    private final int longestStreak;
+    private final double completionRate;
+    private final boolean completedToday;
+
+    HabitSummary(Habit habit, LocalDate today) {
+        this.id = habit.getId();
+        this.name = habit.getName();
+        this.createdDate = habit.getCreatedDate();
+        this.completedCount = habit.getCompletedCount();
+        this.currentStreak = habit.calculateCurrentStreak(today);
+        this.longestStreak = habit.calculateLongestStreak();
+        this.completionRate = habit.getCompletionRate(today);
+        this.completedToday = habit.isCompletedOn(today);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDate getCreatedDate() {
+        return createdDate;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public boolean isCompletedToday() {
+        return completedToday;
+    }
+}
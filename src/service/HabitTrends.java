@@ -0,0 +1,65 @@
+package service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public class HabitTrends {
+    private final int habitId;
+    private final double lastSevenDays;
+    private final double lastThirtyDays;
+    private final double lastNinetyDays;
+    private final int weekCount;
+    private final int monthCount;
+    private final int monthLength;
+    private final int[] weekdayCounts;
+    private final double allHabitsLastNinetyDays;
+
+    HabitTrends(HabitAnalytics analytics, int habitId, LocalDate today) {
+        this.habitId = habitId;
+        this.lastSevenDays = analytics.getCompletionPercentage(habitId, today.minusDays(6), today);
+        this.lastThirtyDays = analytics.getCompletionPercentage(habitId, today.minusDays(29), today);
+        this.lastNinetyDays = analytics.getCompletionPercentage(habitId, today.minusDays(89), today);
+        this.weekCount = analytics.getWeekCount(habitId, today);
+        this.monthCount = analytics.getMonthCount(habitId, YearMonth.from(today));
+        this.monthLength = today.lengthOfMonth();
+        this.weekdayCounts = analytics.getWeekdayCounts(habitId);
+        this.allHabitsLastNinetyDays = analytics.getCompletionPercentage(HabitAnalytics.ALL_HABITS,
+            today.minusDays(89), today);
+    }
+
+    public int getHabitId() {
+        return habitId;
+    }
+
+    public double getLastSevenDays() {
+        return lastSevenDays;
+    }
+
+    public double getLastThirtyDays() {
+        return lastThirtyDays;
+    }
+
+    public double getLastNinetyDays() {
+        return lastNinetyDays;
+    }
+
+    public int getWeekCount() {
+        return weekCount;
+    }
+
+    public int getMonthCount() {
+        return monthCount;
+    }
+
+    public int getMonthLength() {
+        return monthLength;
+    }
+
+    public int[] getWeekdayCounts() {
+        return weekdayCounts.clone();
+    }
+
+    public double getAllHabitsLastNinetyDays() {
+        return allHabitsLastNinetyDays;
+    }
+}
@@ -0,0 +1,81 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ImportReport {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final List<String> errors;
+    private int rowCount;
+    private int errorCount;
+    private int appliedCount;
+    private int skippedCount;
+    private int createdHabitCount;
+    private boolean saved;
+
+    public ImportReport() {
+        this.errors = new ArrayList<>();
+    }
+
+    void addRow() {
+        rowCount++;
+    }
+
+    void addError(int lineNumber, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+
+    void addMerged(int applied, int skipped) {
+        appliedCount += applied;
+        skippedCount += skipped;
+    }
+
+    void addCreatedHabit() {
+        createdHabitCount++;
+    }
+
+    void setSaved(boolean saved) {
+        this.saved = saved;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public int getCreatedHabitCount() {
+        return createdHabitCount;
+    }
+
+    public boolean isSaved() {
+        return saved;
+    }
+
+    public String getMessage() {
+        if (!saved) {
+            return "Could not save data. Please try again.";
+        }
+        return "Imported " + appliedCount + " completions (" + skippedCount + " already marked, "
+            + createdHabitCount + " habits created, " + errorCount + " rows with errors).";
+    }
+}
@@ -0,0 +1,242 @@
+package service;
+
+import repository.HabitRepository;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+public class ProfileRegistry {
+    public static final int DEFAULT_MAX_LOADED_PROFILES = 64;
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Pattern PROFILE_ID = Pattern.compile("[a-z0-9_-]{1,64}");
+
+    private final Function<String, HabitRepository> repositoryFactory;
+    private final long writeBehindMillis;
+    private final int maxLoadedProfiles;
+    private final long idleNanos;
+    private final Map<String, ProfileEntry> loadedProfiles;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+    private final DayRolloverScheduler dayRollover;
+
+    public ProfileRegistry(Function<String, HabitRepository> repositoryFactory, long writeBehindMillis) {
+        this(repositoryFactory, writeBehindMillis, DEFAULT_MAX_LOADED_PROFILES, DEFAULT_IDLE_MILLIS);
+    }
+
+    public ProfileRegistry(Function<String, HabitRepository> repositoryFactory, long writeBehindMillis,
+                           int maxLoadedProfiles, long idleMillis) {
+        this(repositoryFactory, writeBehindMillis, maxLoadedProfiles, idleMillis, Clock.systemDefaultZone());
+    }
+
+    public ProfileRegistry(Function<String, HabitRepository> repositoryFactory, long writeBehindMillis,
+                           int maxLoadedProfiles, long idleMillis, Clock clock) {
+        this.repositoryFactory = repositoryFactory;
+        this.writeBehindMillis = writeBehindMillis;
+        this.maxLoadedProfiles = Math.max(1, maxLoadedProfiles);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.loadedProfiles = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "habit-profiles");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.clock = clock;
+        this.dayRollover = new DayRolloverScheduler(() -> clock, scheduler, this::rollOverDay);
+
+        long sweepMillis = Math.max(1000, idleMillis / 2);
+        scheduler.scheduleWithFixedDelay(this::evictIdleProfiles, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        dayRollover.start();
+    }
+
+    public static String normalizeProfileId(String profileId) {
+        String normalized = profileId == null ? "" : profileId.trim().toLowerCase(Locale.ROOT);
+        if (!PROFILE_ID.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("Invalid profile id: " + profileId);
+        }
+        return normalized;
+    }
+
+    public Lease acquire(String profileId) {
+        String id = normalizeProfileId(profileId);
+        while (true) {
+            ProfileEntry entry = loadedProfiles.computeIfAbsent(id, this::createEntry);
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                entry.leases++;
+                entry.lastAccessNanos = System.nanoTime();
+            }
+
+            try {
+                entry.ensureLoaded();
+            } catch (RuntimeException e) {
+                release(entry);
+                throw e;
+            }
+            if (loadedProfiles.size() > maxLoadedProfiles) {
+                scheduler.execute(this::evictOverflow);
+            }
+            return new Lease(this, entry);
+        }
+    }
+
+    public <T> T withProfile(String profileId, Function<HabitService, T> action) {
+        try (Lease lease = acquire(profileId)) {
+            return action.apply(lease.getService());
+        }
+    }
+
+    public int getLoadedProfileCount() {
+        return loadedProfiles.size();
+    }
+
+    public boolean isLoaded(String profileId) {
+        return loadedProfiles.containsKey(normalizeProfileId(profileId));
+    }
+
+    public void shutdown() throws IOException {
+        dayRollover.stop();
+        scheduler.shutdown();
+        IOException failure = null;
+        for (ProfileEntry entry : loadedProfiles.values()) {
+            try {
+                entry.service.shutdown();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ProfileEntry createEntry(String profileId) {
+        HabitService service = new HabitService(repositoryFactory.apply(profileId), writeBehindMillis, scheduler,
+            clock);
+        return new ProfileEntry(profileId, service);
+    }
+
+    private void release(ProfileEntry entry) {
+        synchronized (entry) {
+            entry.leases--;
+            entry.lastAccessNanos = System.nanoTime();
+        }
+    }
+
+    private void rollOverDay() {
+        for (ProfileEntry entry : loadedProfiles.values()) {
+            if (entry.loaded) {
+                entry.service.rollOverDay();
+            }
+        }
+    }
+
+    private void evictIdleProfiles() {
+        for (ProfileEntry entry : loadedProfiles.values()) {
+            evict(entry, idleNanos);
+        }
+    }
+
+    private void evictOverflow() {
+        int overflow = loadedProfiles.size() - maxLoadedProfiles;
+        if (overflow <= 0) {
+            return;
+        }
+
+        List<ProfileEntry> candidates = new ArrayList<>(loadedProfiles.values());
+        candidates.sort(Comparator.comparingLong(entry -> entry.lastAccessNanos));
+        for (ProfileEntry entry : candidates) {
+            if (overflow <= 0) {
+                break;
+            }
+            if (evict(entry, 0)) {
+                overflow--;
+            }
+        }
+    }
+
+    private boolean evict(ProfileEntry entry, long minIdleNanos) {
+        synchronized (entry) {
+            if (entry.evicted || entry.leases > 0 || System.nanoTime() - entry.lastAccessNanos < minIdleNanos) {
+                return false;
+            }
+            try {
+                entry.service.shutdown();
+            } catch (IOException e) {
+                return false;
+            }
+            entry.evicted = true;
+            loadedProfiles.remove(entry.profileId, entry);
+            return true;
+        }
+    }
+
+    public static class Lease implements AutoCloseable {
+        private final ProfileRegistry registry;
+        private final ProfileEntry entry;
+        private boolean closed;
+
+        private Lease(ProfileRegistry registry, ProfileEntry entry) {
+            this.registry = registry;
+            this.entry = entry;
+        }
+
+        public String getProfileId() {
+            return entry.profileId;
+        }
+
+        public HabitService getService() {
+            return entry.service;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                registry.release(entry);
+            }
+        }
+    }
+
+    private static class ProfileEntry {
+        private final String profileId;
+        private final HabitService service;
+        private final Object loadLock;
+        private volatile boolean loaded;
+        private volatile long lastAccessNanos;
+        private boolean evicted;
+        private int leases;
+
+        private ProfileEntry(String profileId, HabitService service) {
+            this.profileId = profileId;
+            this.service = service;
+            this.loadLock = new Object();
+            this.lastAccessNanos = System.nanoTime();
+        }
+
+        private void ensureLoaded() {
+            if (loaded) {
+                return;
+            }
+            synchronized (loadLock) {
+                if (!loaded) {
+                    service.loadHabits();
+                    loaded = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package service;
+
+import metrics.Metrics;
+import metrics.MetricsRegistry;
+import metrics.ServiceOperationEvent;
+import metrics.Timer;
+import metrics.Timing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class ServiceMetrics {
+    static final String LOAD = "load";
+    static final String ADD = "add";
+    static final String EDIT = "edit";
+    static final String DELETE = "delete";
+    static final String MARK = "mark";
+    static final String IMPORT = "import";
+    static final String SEARCH = "search";
+    static final String ANALYTICS = "analytics";
+    static final String FLUSH = "flush";
+    static final String UNDO = "undo";
+    static final String REDO = "redo";
+
+    private static final String[] OPERATIONS = {
+        LOAD, ADD, EDIT, DELETE, MARK, IMPORT, SEARCH, ANALYTICS, FLUSH, UNDO, REDO
+    };
+
+    private volatile Timers timers;
+
+    Timing<ServiceOperationEvent> time(String operation) {
+        return Timing.start(timers().get(operation), new ServiceOperationEvent(operation));
+    }
+
+    private Map<String, Timer> timers() {
+        MetricsRegistry registry = Metrics.registry();
+        Timers current = timers;
+        if (current == null || current.registry != registry) {
+            current = new Timers(registry);
+            timers = current;
+        }
+        return current.byOperation;
+    }
+
+    private static final class Timers {
+        private final MetricsRegistry registry;
+        private final Map<String, Timer> byOperation;
+
+        private Timers(MetricsRegistry registry) {
+            this.registry = registry;
+            this.byOperation = new HashMap<>();
+            for (String operation : OPERATIONS) {
+                byOperation.put(operation, registry.timer("habit_service_operation_seconds",
+                    "Latency of HabitService operations, including lock waits and synchronous saves.",
+                    "operation", operation));
+            }
+        }
+    }
+}
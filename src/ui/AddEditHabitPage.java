@@ -1,11 +1,12 @@
 package ui;
 
 import model.Habit;
+import service.AsyncHabitService;
+import service.HabitChangeEvent;
 import service.HabitService;
 import service.ServiceResult;
 
 import javax.swing.BorderFactory;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -19,7 +20,6 @@ import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
-import java.util.List;
 
 public class AddEditHabitPage extends JPanel {
     private static final Color LAVENDER = new Color(230, 230, 250);
@@ -28,14 +28,19 @@ public class AddEditHabitPage extends JPanel {
 
     private final HabitTrackerFrame parentFrame;
     private final HabitService habitService;
+    private final AsyncHabitService asyncHabitService;
 
-    private final DefaultListModel<Habit> habitListModel;
+    private final HabitListModel habitListModel;
     private final JList<Habit> habitList;
     private final JTextField nameField;
+    private final JButton undoButton;
+    private final JButton redoButton;
+    private boolean stale;
 
-    public AddEditHabitPage(HabitTrackerFrame parentFrame, HabitService habitService) {
+    public AddEditHabitPage(HabitTrackerFrame parentFrame, AsyncHabitService asyncHabitService) {
         this.parentFrame = parentFrame;
-        this.habitService = habitService;
+        this.habitService = asyncHabitService.getHabitService();
+        this.asyncHabitService = asyncHabitService;
 
         setLayout(new BorderLayout(12, 12));
         setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
@@ -45,9 +50,12 @@ public class AddEditHabitPage extends JPanel {
         title.setFont(new Font("SansSerif", Font.BOLD, 24));
         add(title, BorderLayout.NORTH);
 
-        habitListModel = new DefaultListModel<>();
+        nameField = new JTextField();
+        habitListModel = new HabitListModel(habitService::searchHabits);
+        stale = true;
         habitList = new JList<>(habitListModel);
         habitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        habitList.setPrototypeCellValue(HabitListModel.PROTOTYPE);
         habitList.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 Habit selected = habitList.getSelectedValue();
@@ -59,19 +67,23 @@ public class AddEditHabitPage extends JPanel {
 
         JScrollPane scrollPane = new JScrollPane(habitList);
 
+        JPanel listPanel = new JPanel(new BorderLayout(6, 6));
+        listPanel.setOpaque(false);
+        listPanel.add(new HabitSearchField(habitListModel), BorderLayout.NORTH);
+        listPanel.add(scrollPane, BorderLayout.CENTER);
+
         JPanel formPanel = new JPanel(new GridLayout(2, 1, 8, 8));
         formPanel.setBackground(LIGHT_BLUE);
         formPanel.setBorder(BorderFactory.createTitledBorder("Habit Input"));
 
         JLabel nameLabel = new JLabel("Habit Name (1-50 chars):");
-        nameField = new JTextField();
 
         formPanel.add(nameLabel);
         formPanel.add(nameField);
 
         JPanel center = new JPanel(new GridLayout(1, 2, 12, 12));
         center.setOpaque(false);
-        center.add(scrollPane);
+        center.add(listPanel);
         center.add(formPanel);
 
         add(center, BorderLayout.CENTER);
@@ -85,6 +97,12 @@ public class AddEditHabitPage extends JPanel {
         JButton deleteButton = createButton("Delete Selected");
         deleteButton.addActionListener(e -> deleteHabit());
 
+        undoButton = createButton("Undo");
+        undoButton.addActionListener(e -> parentFrame.undo());
+
+        redoButton = createButton("Redo");
+        redoButton.addActionListener(e -> parentFrame.redo());
+
         JButton backButton = createButton("Back to Dashboard");
         backButton.addActionListener(e -> parentFrame.showDashboard());
 
@@ -93,40 +111,78 @@ public class AddEditHabitPage extends JPanel {
         buttonBar.add(addButton);
         buttonBar.add(updateButton);
         buttonBar.add(deleteButton);
+        buttonBar.add(undoButton);
+        buttonBar.add(redoButton);
         buttonBar.add(backButton);
 
         add(buttonBar, BorderLayout.SOUTH);
+        updateHistoryButtons();
     }
 
     public void refreshData() {
         Habit currentSelection = habitList.getSelectedValue();
-        Integer selectedId = currentSelection == null ? null : currentSelection.getId();
 
-        habitListModel.clear();
-        List<Habit> habits = habitService.getAllHabits();
-        for (Habit habit : habits) {
-            habitListModel.addElement(habit);
+        habitListModel.replaceAll(habitService.getAllHabits());
+        stale = false;
+        updateHistoryButtons();
+
+        if (currentSelection != null) {
+            restoreSelection(currentSelection.getId());
         }
+    }
 
-        if (selectedId != null) {
-            for (int i = 0; i < habitListModel.size(); i++) {
-                if (habitListModel.get(i).getId() == selectedId) {
-                    habitList.setSelectedIndex(i);
-                    break;
-                }
-            }
+    public void showPage() {
+        if (stale) {
+            refreshData();
         }
     }
 
-    private void addHabit() {
-        ServiceResult result = habitService.addHabit(nameField.getText());
-        showResult(result);
-        if (result.isSuccess()) {
-            nameField.setText("");
-            parentFrame.refreshAllPages();
+    public void habitChanged(HabitChangeEvent event) {
+        if (event.getType() == HabitChangeEvent.Type.DAY_CHANGED) {
+            return;
+        }
+        updateHistoryButtons();
+        if (!isShowing()) {
+            stale = true;
+            return;
+        }
+        if (event.getType() == HabitChangeEvent.Type.RELOADED) {
+            refreshData();
+            return;
+        }
+
+        Habit currentSelection = habitList.getSelectedValue();
+        habitListModel.applyChange(event, habitService.findHabitById(event.getHabitId()));
+        if (currentSelection != null && currentSelection.getId() == event.getHabitId()) {
+            restoreSelection(currentSelection.getId());
+        }
+    }
+
+    private void updateHistoryButtons() {
+        String undoDescription = habitService.getUndoDescription();
+        String redoDescription = habitService.getRedoDescription();
+        undoButton.setEnabled(undoDescription != null);
+        undoButton.setToolTipText(undoDescription == null ? null : "Undo " + undoDescription);
+        redoButton.setEnabled(redoDescription != null);
+        redoButton.setToolTipText(redoDescription == null ? null : "Redo " + redoDescription);
+    }
+
+    private void restoreSelection(int id) {
+        int index = habitListModel.indexOfId(id);
+        if (index >= 0) {
+            habitList.setSelectedIndex(index);
         }
     }
 
+    private void addHabit() {
+        parentFrame.onResult(asyncHabitService.addHabit(nameField.getText()), result -> {
+            showResult(result);
+            if (result.isSuccess()) {
+                nameField.setText("");
+            }
+        });
+    }
+
     private void updateHabit() {
         Habit selected = habitList.getSelectedValue();
         if (selected == null) {
@@ -134,11 +190,7 @@ public class AddEditHabitPage extends JPanel {
             return;
         }
 
-        ServiceResult result = habitService.editHabit(selected.getId(), nameField.getText());
-        showResult(result);
-        if (result.isSuccess()) {
-            parentFrame.refreshAllPages();
-        }
+        parentFrame.onResult(asyncHabitService.editHabit(selected.getId(), nameField.getText()), this::showResult);
     }
 
     private void deleteHabit() {
@@ -159,12 +211,12 @@ public class AddEditHabitPage extends JPanel {
             return;
         }
 
-        ServiceResult result = habitService.deleteHabit(selected.getId());
-        showResult(result);
-        if (result.isSuccess()) {
-            nameField.setText("");
-            parentFrame.refreshAllPages();
-        }
+        parentFrame.onResult(asyncHabitService.deleteHabit(selected.getId()), result -> {
+            showResult(result);
+            if (result.isSuccess()) {
+                nameField.setText("");
+            }
+        });
     }
 
     private void showResult(ServiceResult result) {
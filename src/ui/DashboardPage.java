@@ -1,10 +1,11 @@
 package ui;
 
 import model.Habit;
+import service.AsyncHabitService;
+import service.HabitChangeEvent;
 import service.HabitService;
 
 import javax.swing.BorderFactory;
-import javax.swing.DefaultListModel;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -18,7 +19,6 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
-import java.util.List;
 
 public class DashboardPage extends JPanel {
     private static final Color LAVENDER = new Color(230, 230, 250);
@@ -28,16 +28,17 @@ public class DashboardPage extends JPanel {
     private final HabitTrackerFrame parentFrame;
     private final HabitService habitService;
 
-    private final DefaultListModel<Habit> habitListModel;
+    private final HabitListModel habitListModel;
     private final JList<Habit> habitList;
+    private boolean stale;
 
     private final JLabel totalHabitsLabel;
     private final JLabel completedTodayLabel;
     private final JLabel averageCompletionLabel;
 
-    public DashboardPage(HabitTrackerFrame parentFrame, HabitService habitService) {
+    public DashboardPage(HabitTrackerFrame parentFrame, AsyncHabitService asyncHabitService) {
         this.parentFrame = parentFrame;
-        this.habitService = habitService;
+        this.habitService = asyncHabitService.getHabitService();
 
         setLayout(new BorderLayout(12, 12));
         setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
@@ -47,17 +48,24 @@ public class DashboardPage extends JPanel {
         title.setFont(new Font("SansSerif", Font.BOLD, 24));
         add(title, BorderLayout.NORTH);
 
-        habitListModel = new DefaultListModel<>();
+        habitListModel = new HabitListModel(habitService::searchHabits);
+        stale = true;
         habitList = new JList<>(habitListModel);
         habitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         habitList.setBackground(Color.WHITE);
+        habitList.setPrototypeCellValue(HabitListModel.PROTOTYPE);
 
         JScrollPane scrollPane = new JScrollPane(habitList);
         scrollPane.setPreferredSize(new Dimension(380, 300));
 
+        JPanel listPanel = new JPanel(new BorderLayout(6, 6));
+        listPanel.setOpaque(false);
+        listPanel.add(new HabitSearchField(habitListModel), BorderLayout.NORTH);
+        listPanel.add(scrollPane, BorderLayout.CENTER);
+
         JPanel centerPanel = new JPanel(new GridLayout(1, 2, 12, 12));
         centerPanel.setOpaque(false);
-        centerPanel.add(scrollPane);
+        centerPanel.add(listPanel);
 
         JPanel statsPanel = new JPanel(new GridLayout(3, 1, 10, 10));
         statsPanel.setBackground(LIGHT_BLUE);
@@ -93,13 +101,38 @@ public class DashboardPage extends JPanel {
     }
 
     public void refreshData() {
-        habitListModel.clear();
+        habitListModel.replaceAll(habitService.getAllHabits());
+        stale = false;
+        refreshStats();
+    }
+
+    public void showPage() {
+        if (stale) {
+            refreshData();
+        } else {
+            refreshStats();
+        }
+    }
 
-        List<Habit> habits = habitService.getAllHabits();
-        for (Habit habit : habits) {
-            habitListModel.addElement(habit);
+    public void habitChanged(HabitChangeEvent event) {
+        if (!isShowing()) {
+            stale = true;
+            return;
         }
+        if (event.getType() == HabitChangeEvent.Type.RELOADED) {
+            refreshData();
+            return;
+        }
+        if (event.getType() == HabitChangeEvent.Type.DAY_CHANGED) {
+            refreshStats();
+            return;
+        }
+
+        habitListModel.applyChange(event, habitService.findHabitById(event.getHabitId()));
+        refreshStats();
+    }
 
+    private void refreshStats() {
         totalHabitsLabel.setText("Total habits: " + habitService.getTotalHabits());
         completedTodayLabel.setText("Completed today: " + habitService.getHabitsCompletedTodayCount());
         averageCompletionLabel.setText("Average completion: " + habitService.getAverageCompletionPercentage() + "%");
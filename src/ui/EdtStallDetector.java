@@ -0,0 +1,95 @@
+package ui;
+
+import metrics.EdtStallEvent;
+import metrics.Metrics;
+import metrics.MetricsRegistry;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class EdtStallDetector {
+    public static final long DEFAULT_THRESHOLD_MILLIS = 200;
+
+    private static final long PROBE_INTERVAL_MILLIS = 50;
+    private static final int STACK_FRAMES = 12;
+
+    private final long thresholdNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Thread dispatchThread;
+    private volatile long probePostedAt;
+    private volatile String stalledAt;
+
+    public EdtStallDetector() {
+        this(Long.getLong("habittracker.edtStallMillis", DEFAULT_THRESHOLD_MILLIS));
+    }
+
+    public EdtStallDetector(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "habit-edt-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::probe, PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void probe() {
+        long posted = probePostedAt;
+        if (posted == 0) {
+            probePostedAt = System.nanoTime();
+            EventQueue.invokeLater(this::probeArrived);
+            return;
+        }
+
+        Thread thread = dispatchThread;
+        if (stalledAt == null && thread != null && System.nanoTime() - posted >= thresholdNanos) {
+            String stack = describe(thread.getStackTrace());
+            if (probePostedAt == posted) {
+                stalledAt = stack;
+            }
+        }
+    }
+
+    private void probeArrived() {
+        long lag = System.nanoTime() - probePostedAt;
+        boolean started = dispatchThread != null;
+        dispatchThread = Thread.currentThread();
+        MetricsRegistry registry = Metrics.registry();
+        registry.timer("habit_ui_edt_lag_seconds",
+            "Delay between posting a probe to the event dispatch thread and the probe running.").record(lag);
+        if (lag >= thresholdNanos && started) {
+            registry.timer("habit_ui_edt_stall_seconds",
+                "Event dispatch thread delays longer than the stall threshold.").record(lag);
+            EdtStallEvent event = new EdtStallEvent();
+            if (event.shouldCommit()) {
+                event.setStall(lag);
+                event.setStalledAt(stalledAt);
+                event.commit();
+            }
+        }
+        stalledAt = null;
+        probePostedAt = 0;
+    }
+
+    private static String describe(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < stack.length && i < STACK_FRAMES; i++) {
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append(stack[i]);
+        }
+        return text.toString();
+    }
+}
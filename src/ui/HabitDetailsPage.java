@@ -1,23 +1,30 @@
 package ui;
 
 import model.Habit;
+import service.AsyncHabitService;
+import service.HabitAnalytics;
+import service.HabitChangeEvent;
 import service.HabitService;
-import service.ServiceResult;
+import service.HabitSummary;
+import service.HabitTrends;
 
 import javax.swing.BorderFactory;
-import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.basic.ComboPopup;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
-import java.time.LocalDate;
-import java.util.List;
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
 
 public class HabitDetailsPage extends JPanel {
     private static final Color LAVENDER = new Color(230, 230, 250);
@@ -26,18 +33,31 @@ public class HabitDetailsPage extends JPanel {
 
     private final HabitTrackerFrame parentFrame;
     private final HabitService habitService;
+    private final AsyncHabitService asyncHabitService;
 
-    private final DefaultComboBoxModel<Habit> habitComboModel;
+    private final HabitListModel habitComboModel;
     private final JComboBox<Habit> habitComboBox;
+    private boolean stale;
 
     private final JLabel createdDateValue;
     private final JLabel currentStreakValue;
     private final JLabel longestStreakValue;
     private final JLabel completionValue;
 
-    public HabitDetailsPage(HabitTrackerFrame parentFrame, HabitService habitService) {
+    private final JLabel last7DaysValue;
+    private final JLabel last30DaysValue;
+    private final JLabel last90DaysValue;
+    private final JLabel thisWeekValue;
+    private final JLabel thisMonthValue;
+    private final JLabel bestWeekdayValue;
+    private final JLabel allHabitsValue;
+    private final HeatmapPanel heatmapPanel;
+    private int trendsRequest;
+
+    public HabitDetailsPage(HabitTrackerFrame parentFrame, AsyncHabitService asyncHabitService) {
         this.parentFrame = parentFrame;
-        this.habitService = habitService;
+        this.habitService = asyncHabitService.getHabitService();
+        this.asyncHabitService = asyncHabitService;
 
         setLayout(new BorderLayout(12, 12));
         setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
@@ -47,13 +67,20 @@ public class HabitDetailsPage extends JPanel {
         title.setFont(new Font("SansSerif", Font.BOLD, 24));
         add(title, BorderLayout.NORTH);
 
-        habitComboModel = new DefaultComboBoxModel<>();
+        habitComboModel = new HabitListModel(habitService::searchHabits);
+        stale = true;
         habitComboBox = new JComboBox<>(habitComboModel);
+        habitComboBox.setPrototypeDisplayValue(HabitListModel.PROTOTYPE);
+        Object popup = habitComboBox.getUI().getAccessibleChild(habitComboBox, 0);
+        if (popup instanceof ComboPopup) {
+            ((ComboPopup) popup).getList().setPrototypeCellValue(HabitListModel.PROTOTYPE);
+        }
         habitComboBox.addActionListener(e -> updateDetailsPanel());
 
         JPanel selectorPanel = new JPanel(new BorderLayout(8, 8));
         selectorPanel.setBackground(LIGHT_BLUE);
         selectorPanel.setBorder(BorderFactory.createTitledBorder("Select Habit"));
+        selectorPanel.add(new HabitSearchField(habitComboModel), BorderLayout.NORTH);
         selectorPanel.add(habitComboBox, BorderLayout.CENTER);
 
         JPanel detailsPanel = new JPanel(new GridLayout(4, 2, 8, 8));
@@ -76,10 +103,53 @@ public class HabitDetailsPage extends JPanel {
         completionValue = new JLabel("-");
         detailsPanel.add(completionValue);
 
-        JPanel center = new JPanel(new GridLayout(2, 1, 12, 12));
+        JPanel trendsPanel = new JPanel(new GridLayout(7, 2, 8, 4));
+        trendsPanel.setBackground(LIGHT_BLUE);
+        trendsPanel.setBorder(BorderFactory.createTitledBorder("Trends"));
+
+        trendsPanel.add(new JLabel("Last 7 Days:"));
+        last7DaysValue = new JLabel("-");
+        trendsPanel.add(last7DaysValue);
+
+        trendsPanel.add(new JLabel("Last 30 Days:"));
+        last30DaysValue = new JLabel("-");
+        trendsPanel.add(last30DaysValue);
+
+        trendsPanel.add(new JLabel("Last 90 Days:"));
+        last90DaysValue = new JLabel("-");
+        trendsPanel.add(last90DaysValue);
+
+        trendsPanel.add(new JLabel("This Week:"));
+        thisWeekValue = new JLabel("-");
+        trendsPanel.add(thisWeekValue);
+
+        trendsPanel.add(new JLabel("This Month:"));
+        thisMonthValue = new JLabel("-");
+        trendsPanel.add(thisMonthValue);
+
+        trendsPanel.add(new JLabel("Best Weekday:"));
+        bestWeekdayValue = new JLabel("-");
+        trendsPanel.add(bestWeekdayValue);
+
+        trendsPanel.add(new JLabel("All Habits, Last 90 Days:"));
+        allHabitsValue = new JLabel("-");
+        trendsPanel.add(allHabitsValue);
+
+        JPanel statsRow = new JPanel(new GridLayout(1, 2, 12, 12));
+        statsRow.setOpaque(false);
+        statsRow.add(detailsPanel);
+        statsRow.add(trendsPanel);
+
+        heatmapPanel = new HeatmapPanel(habitService);
+        JScrollPane heatmapScroll = new JScrollPane(heatmapPanel);
+        heatmapScroll.setBorder(BorderFactory.createTitledBorder("Completion Calendar"));
+        heatmapScroll.setBackground(LIGHT_BLUE);
+
+        JPanel center = new JPanel(new BorderLayout(12, 12));
         center.setOpaque(false);
-        center.add(selectorPanel);
-        center.add(detailsPanel);
+        center.add(selectorPanel, BorderLayout.NORTH);
+        center.add(statsRow, BorderLayout.CENTER);
+        center.add(heatmapScroll, BorderLayout.SOUTH);
 
         add(center, BorderLayout.CENTER);
 
@@ -98,48 +168,109 @@ public class HabitDetailsPage extends JPanel {
     }
 
     public void refreshData() {
-        Habit selected = (Habit) habitComboBox.getSelectedItem();
-        Integer selectedId = selected == null ? null : selected.getId();
+        habitComboModel.replaceAll(habitService.getAllHabits());
+        stale = false;
+        if (habitComboModel.getSelectedItem() == null && habitComboModel.getSize() > 0) {
+            habitComboModel.setSelectedItem(habitComboModel.getElementAt(0));
+        }
+        updateDetailsPanel();
+    }
 
-        habitComboModel.removeAllElements();
-        List<Habit> habits = habitService.getAllHabits();
-        for (Habit habit : habits) {
-            habitComboModel.addElement(habit);
+    public void showPage() {
+        if (stale) {
+            refreshData();
         }
+    }
 
-        if (selectedId != null) {
-            setSelectedHabit(selectedId);
+    public void habitChanged(HabitChangeEvent event) {
+        heatmapPanel.habitChanged(event);
+        if (!isShowing()) {
+            stale = true;
+            return;
+        }
+        if (event.getType() == HabitChangeEvent.Type.RELOADED) {
+            refreshData();
+            return;
+        }
+        if (event.getType() == HabitChangeEvent.Type.DAY_CHANGED) {
+            updateDetailsPanel();
+            return;
         }
 
+        habitComboModel.applyChange(event, habitService.findHabitById(event.getHabitId()));
+        Habit selected = (Habit) habitComboBox.getSelectedItem();
+        if (selected != null && selected.getId() != event.getHabitId()) {
+            return;
+        }
         updateDetailsPanel();
     }
 
     public void setSelectedHabit(int id) {
-        for (int i = 0; i < habitComboModel.getSize(); i++) {
-            Habit habit = habitComboModel.getElementAt(i);
-            if (habit.getId() == id) {
-                habitComboBox.setSelectedIndex(i);
-                break;
-            }
+        int index = habitComboModel.indexOfId(id);
+        if (index >= 0) {
+            habitComboBox.setSelectedIndex(index);
+        } else if (habitService.findHabitById(id) != null) {
+            habitComboModel.setSelectedItem(habitService.findHabitById(id));
         }
         updateDetailsPanel();
     }
 
     private void updateDetailsPanel() {
         Habit selected = (Habit) habitComboBox.getSelectedItem();
-        if (selected == null) {
+        HabitSummary summary = selected == null ? null : habitService.summarizeHabit(selected.getId());
+        heatmapPanel.setHabit(summary == null ? 0 : summary.getId());
+        if (summary == null) {
             createdDateValue.setText("-");
             currentStreakValue.setText("0");
             longestStreakValue.setText("0");
             completionValue.setText("0.0%");
+            last7DaysValue.setText("-");
+            last30DaysValue.setText("-");
+            last90DaysValue.setText("-");
+            thisWeekValue.setText("-");
+            thisMonthValue.setText("-");
+            bestWeekdayValue.setText("-");
+            requestTrends(HabitAnalytics.ALL_HABITS);
+            return;
+        }
+
+        createdDateValue.setText(String.valueOf(summary.getCreatedDate()));
+        currentStreakValue.setText(String.valueOf(summary.getCurrentStreak()));
+        longestStreakValue.setText(String.valueOf(summary.getLongestStreak()));
+        completionValue.setText(summary.getCompletionRate() + "%");
+        requestTrends(summary.getId());
+    }
+
+    private void requestTrends(int habitId) {
+        int request = ++trendsRequest;
+        asyncHabitService.summarizeTrends(habitId).whenComplete((trends, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null && request == trendsRequest) {
+                showTrends(trends);
+            }
+        }));
+    }
+
+    private void showTrends(HabitTrends trends) {
+        allHabitsValue.setText(trends.getAllHabitsLastNinetyDays() + "%");
+        if (trends.getHabitId() == HabitAnalytics.ALL_HABITS) {
             return;
         }
 
-        LocalDate today = LocalDate.now();
-        createdDateValue.setText(String.valueOf(selected.getCreatedDate()));
-        currentStreakValue.setText(String.valueOf(selected.calculateCurrentStreak(today)));
-        longestStreakValue.setText(String.valueOf(selected.calculateLongestStreak()));
-        completionValue.setText(selected.getCompletionRate(today) + "%");
+        last7DaysValue.setText(trends.getLastSevenDays() + "%");
+        last30DaysValue.setText(trends.getLastThirtyDays() + "%");
+        last90DaysValue.setText(trends.getLastNinetyDays() + "%");
+        thisWeekValue.setText(trends.getWeekCount() + " of 7 days");
+        thisMonthValue.setText(trends.getMonthCount() + " of " + trends.getMonthLength() + " days");
+
+        int[] weekdayCounts = trends.getWeekdayCounts();
+        int best = 0;
+        for (int i = 1; i < weekdayCounts.length; i++) {
+            if (weekdayCounts[i] > weekdayCounts[best]) {
+                best = i;
+            }
+        }
+        String bestDay = DayOfWeek.of(best + 1).getDisplayName(TextStyle.FULL, Locale.getDefault());
+        bestWeekdayValue.setText(weekdayCounts[best] == 0 ? "-" : bestDay + " (" + weekdayCounts[best] + ")");
     }
 
     private void markTodayComplete() {
@@ -149,12 +280,10 @@ public class HabitDetailsPage extends JPanel {
             return;
         }
 
-        ServiceResult result = habitService.markHabitCompletedToday(selected.getId());
-        int messageType = result.isSuccess() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
-        JOptionPane.showMessageDialog(this, result.getMessage(), "Habit Tracker", messageType);
-
-        parentFrame.refreshAllPages();
-        setSelectedHabit(selected.getId());
+        parentFrame.onResult(asyncHabitService.markHabitCompletedToday(selected.getId()), result -> {
+            int messageType = result.isSuccess() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
+            JOptionPane.showMessageDialog(this, result.getMessage(), "Habit Tracker", messageType);
+        });
     }
 
     private JButton createButton(String text) {
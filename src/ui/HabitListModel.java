@@ -0,0 +1,234 @@
+package ui;
+
+import model.Habit;
+import service.HabitChangeEvent;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+public class HabitListModel extends AbstractListModel<Habit> implements ComboBoxModel<Habit> {
+    public static final Habit PROTOTYPE = new Habit(0, "Prototype habit name used for sizing", null, null);
+
+    private final Function<String, List<Habit>> searcher;
+    private final List<Habit> habits;
+    private final Map<Integer, String> listedNames;
+    private List<Habit> visible;
+    private String filter;
+    private Object selectedItem;
+
+    public HabitListModel(Function<String, List<Habit>> searcher) {
+        this.searcher = searcher;
+        this.habits = new ArrayList<>();
+        this.listedNames = new HashMap<>();
+        this.visible = habits;
+        this.filter = "";
+    }
+
+    public void replaceAll(List<Habit> sortedHabits) {
+        int oldSize = visible.size();
+        habits.clear();
+        listedNames.clear();
+        visible = habits;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+
+        for (Habit habit : sortedHabits) {
+            habits.add(habit);
+            listedNames.put(habit.getId(), habit.getName());
+        }
+        if (!filter.isEmpty()) {
+            visible = searchListed(filter);
+        }
+        if (!visible.isEmpty()) {
+            fireIntervalAdded(this, 0, visible.size() - 1);
+        }
+
+        if (selectedItem instanceof Habit && !listedNames.containsKey(((Habit) selectedItem).getId())) {
+            setSelectedItem(visible.isEmpty() ? null : visible.get(0));
+        }
+    }
+
+    public void setFilter(String query) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals(filter)) {
+            return;
+        }
+
+        List<Habit> matches;
+        if (normalized.isEmpty()) {
+            matches = habits;
+        } else if (!filter.isEmpty() && normalized.contains(filter)) {
+            matches = new ArrayList<>();
+            for (Habit habit : visible) {
+                if (matches(habit, normalized)) {
+                    matches.add(habit);
+                }
+            }
+        } else {
+            matches = searchListed(normalized);
+        }
+
+        int oldSize = visible.size();
+        visible = habits;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        filter = normalized;
+        visible = matches;
+        if (!visible.isEmpty()) {
+            fireIntervalAdded(this, 0, visible.size() - 1);
+        }
+    }
+
+    public void applyChange(HabitChangeEvent event, Habit habit) {
+        if (habit == null || event.getType() == HabitChangeEvent.Type.REMOVED) {
+            habitRemoved(event.getHabitId());
+        } else {
+            habitUpdated(habit);
+        }
+    }
+
+    public void habitAdded(Habit habit) {
+        if (listedNames.containsKey(habit.getId())) {
+            habitUpdated(habit);
+            return;
+        }
+
+        int index = insertionIndex(habits, habit.getName(), habit.getId());
+        habits.add(index, habit);
+        if (visible != habits) {
+            if (!matches(habit, filter)) {
+                listedNames.put(habit.getId(), habit.getName());
+                return;
+            }
+            index = insertionIndex(visible, habit.getName(), habit.getId());
+            visible.add(index, habit);
+        }
+        listedNames.put(habit.getId(), habit.getName());
+        fireIntervalAdded(this, index, index);
+    }
+
+    public void habitUpdated(Habit habit) {
+        String listedName = listedNames.get(habit.getId());
+        if (listedName == null) {
+            habitAdded(habit);
+            return;
+        }
+
+        int index = indexOf(visible, listedName, habit.getId());
+        int listedIndex = visible == habits ? index : indexOf(habits, listedName, habit.getId());
+        if (listedName.equals(habit.getName()) && habits.get(listedIndex) == habit) {
+            if (index >= 0) {
+                fireContentsChanged(this, index, index);
+            }
+            return;
+        }
+
+        Object selected = selectedItem;
+        habitRemoved(habit.getId());
+        habitAdded(habit);
+        if (selected instanceof Habit && ((Habit) selected).getId() == habit.getId()) {
+            setSelectedItem(habit);
+        }
+    }
+
+    public void habitRemoved(int id) {
+        String listedName = listedNames.get(id);
+        if (listedName == null) {
+            return;
+        }
+
+        int index = indexOf(visible, listedName, id);
+        if (visible != habits) {
+            habits.remove(indexOf(habits, listedName, id));
+        }
+        if (index >= 0) {
+            visible.remove(index);
+        }
+        listedNames.remove(id);
+        if (index >= 0) {
+            fireIntervalRemoved(this, index, index);
+        }
+
+        if (selectedItem instanceof Habit && ((Habit) selectedItem).getId() == id) {
+            int next = Math.max(0, index);
+            setSelectedItem(visible.isEmpty() ? null : visible.get(Math.min(next, visible.size() - 1)));
+        }
+    }
+
+    public int indexOfId(int id) {
+        String listedName = listedNames.get(id);
+        return listedName == null ? -1 : indexOf(visible, listedName, id);
+    }
+
+    @Override
+    public int getSize() {
+        return visible.size();
+    }
+
+    @Override
+    public Habit getElementAt(int index) {
+        return visible.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if (selectedItem == null ? item == null : selectedItem.equals(item)) {
+            return;
+        }
+        selectedItem = item;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    private List<Habit> searchListed(String query) {
+        List<Habit> matches = new ArrayList<>();
+        for (Habit habit : searcher.apply(query)) {
+            String listedName = listedNames.get(habit.getId());
+            if (listedName != null && listedName.equals(habit.getName())) {
+                matches.add(habit);
+            }
+        }
+        return matches;
+    }
+
+    private boolean matches(Habit habit, String query) {
+        return query.isEmpty() || habit.getName().toLowerCase(Locale.ROOT).contains(query);
+    }
+
+    private int indexOf(List<Habit> list, String name, int id) {
+        int index = insertionIndex(list, name, id);
+        return index < list.size() && list.get(index).getId() == id ? index : -1;
+    }
+
+    private int insertionIndex(List<Habit> list, String name, int id) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Habit current = list.get(mid);
+            if (compare(listedNames.get(current.getId()), current.getId(), name, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(String leftName, int leftId, String rightName, int rightId) {
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(leftName, rightName);
+        return byName != 0 ? byName : Integer.compare(leftId, rightId);
+    }
+}
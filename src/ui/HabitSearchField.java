@@ -0,0 +1,27 @@
+package ui;
+
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+public class HabitSearchField extends JTextField {
+    public HabitSearchField(HabitListModel model) {
+        setToolTipText("Type to filter habits by name");
+        getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                model.setFilter(getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                model.setFilter(getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                model.setFilter(getText());
+            }
+        });
+    }
+}
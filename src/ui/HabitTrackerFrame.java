@@ -1,12 +1,30 @@
 package ui;
 
+import metrics.Metrics;
+import metrics.Timing;
+import metrics.UiRefreshEvent;
+import service.AsyncHabitService;
+import service.HabitChangeEvent;
 import service.HabitService;
+import service.ServiceResult;
 
+import javax.swing.AbstractAction;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import java.awt.CardLayout;
 import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class HabitTrackerFrame extends JFrame {
     public static final String PAGE_DASHBOARD = "dashboard";
@@ -14,6 +32,7 @@ public class HabitTrackerFrame extends JFrame {
     public static final String PAGE_DETAILS = "details";
 
     private final HabitService habitService;
+    private final AsyncHabitService asyncHabitService;
     private final CardLayout cardLayout;
     private final JPanel cardPanel;
 
@@ -21,8 +40,9 @@ public class HabitTrackerFrame extends JFrame {
     private final AddEditHabitPage addEditHabitPage;
     private final HabitDetailsPage habitDetailsPage;
 
-    public HabitTrackerFrame(HabitService habitService) {
-        this.habitService = habitService;
+    public HabitTrackerFrame(AsyncHabitService asyncHabitService) {
+        this.habitService = asyncHabitService.getHabitService();
+        this.asyncHabitService = asyncHabitService;
 
         setTitle("Habit Tracker");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -32,42 +52,112 @@ public class HabitTrackerFrame extends JFrame {
         cardLayout = new CardLayout();
         cardPanel = new JPanel(cardLayout);
 
-        dashboardPage = new DashboardPage(this, habitService);
-        addEditHabitPage = new AddEditHabitPage(this, habitService);
-        habitDetailsPage = new HabitDetailsPage(this, habitService);
+        dashboardPage = new DashboardPage(this, asyncHabitService);
+        addEditHabitPage = new AddEditHabitPage(this, asyncHabitService);
+        habitDetailsPage = new HabitDetailsPage(this, asyncHabitService);
 
         cardPanel.add(dashboardPage, PAGE_DASHBOARD);
         cardPanel.add(addEditHabitPage, PAGE_ADD_EDIT);
         cardPanel.add(habitDetailsPage, PAGE_DETAILS);
 
         add(cardPanel);
+        bindHistoryKeys();
 
-        refreshAllPages();
+        habitService.addChangeListener(event -> SwingUtilities.invokeLater(() -> dispatchChange(event)));
         showDashboard();
     }
 
     public void showDashboard() {
-        refreshAllPages();
-        cardLayout.show(cardPanel, PAGE_DASHBOARD);
+        Timing<UiRefreshEvent> timing = timeRefresh(PAGE_DASHBOARD);
+        try {
+            dashboardPage.showPage();
+            cardLayout.show(cardPanel, PAGE_DASHBOARD);
+        } finally {
+            timing.stop();
+        }
     }
 
     public void showAddEdit() {
-        addEditHabitPage.refreshData();
-        cardLayout.show(cardPanel, PAGE_ADD_EDIT);
+        Timing<UiRefreshEvent> timing = timeRefresh(PAGE_ADD_EDIT);
+        try {
+            addEditHabitPage.showPage();
+            cardLayout.show(cardPanel, PAGE_ADD_EDIT);
+        } finally {
+            timing.stop();
+        }
     }
 
     public void showDetails(Integer habitId) {
-        habitDetailsPage.refreshData();
-        if (habitId != null) {
-            habitDetailsPage.setSelectedHabit(habitId);
+        Timing<UiRefreshEvent> timing = timeRefresh(PAGE_DETAILS);
+        try {
+            habitDetailsPage.showPage();
+            if (habitId != null) {
+                habitDetailsPage.setSelectedHabit(habitId);
+            }
+            cardLayout.show(cardPanel, PAGE_DETAILS);
+        } finally {
+            timing.stop();
         }
-        cardLayout.show(cardPanel, PAGE_DETAILS);
     }
 
-    public void refreshAllPages() {
-        dashboardPage.refreshData();
-        addEditHabitPage.refreshData();
-        habitDetailsPage.refreshData();
+    public void undo() {
+        onResult(asyncHabitService.undo(), this::showResult);
+    }
+
+    public void redo() {
+        onResult(asyncHabitService.redo(), this::showResult);
+    }
+
+    private void bindHistoryKeys() {
+        int shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        InputMap keys = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcut), "undo");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcut), "redo");
+        keys.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcut | InputEvent.SHIFT_DOWN_MASK), "redo");
+        getRootPane().getActionMap().put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undo();
+            }
+        });
+        getRootPane().getActionMap().put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                redo();
+            }
+        });
+    }
+
+    private void showResult(ServiceResult result) {
+        int messageType = result.isSuccess() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
+        JOptionPane.showMessageDialog(this, result.getMessage(), "Habit Tracker", messageType);
+    }
+
+    private void dispatchChange(HabitChangeEvent event) {
+        Timing<UiRefreshEvent> timing = timeRefresh(event.getType().name().toLowerCase(Locale.ROOT));
+        try {
+            dashboardPage.habitChanged(event);
+            addEditHabitPage.habitChanged(event);
+            habitDetailsPage.habitChanged(event);
+        } finally {
+            timing.stop();
+        }
+    }
+
+    private static Timing<UiRefreshEvent> timeRefresh(String trigger) {
+        return Timing.start(Metrics.registry().timer("habit_ui_refresh_seconds",
+            "Time spent on the event dispatch thread refreshing pages after navigation or a habit change.",
+            "trigger", trigger), new UiRefreshEvent(trigger));
+    }
+
+    public void onResult(CompletableFuture<ServiceResult> pending, Consumer<ServiceResult> handler) {
+        pending.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Something went wrong. Please try again.", "Habit Tracker", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            handler.accept(result);
+        }));
     }
 
     public void showLoadWarningIfNeeded() {
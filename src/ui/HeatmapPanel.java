@@ -0,0 +1,223 @@
+package ui;
+
+import model.CompletionSet;
+import service.HabitChangeEvent;
+import service.HabitService;
+import service.HabitSummary;
+
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HeatmapPanel extends JComponent implements Scrollable {
+    private static final int CELL_SIZE = 11;
+    private static final int CELL_GAP = 2;
+    private static final int CELL_STEP = CELL_SIZE + CELL_GAP;
+    private static final int WEEKS_PER_YEAR = 54;
+    private static final int TILE_WIDTH = WEEKS_PER_YEAR * CELL_STEP;
+    private static final int TILE_HEIGHT = 7 * CELL_STEP;
+    private static final int LABEL_WIDTH = 48;
+    private static final int ROW_HEIGHT = TILE_HEIGHT + 10;
+    private static final int MAX_CACHED_TILES = 512;
+
+    private static final Color EMPTY = new Color(226, 226, 236);
+    private static final Color OUTSIDE = new Color(244, 244, 250);
+    private static final Color COMPLETED = new Color(64, 164, 96);
+    private static final Color TODAY_OUTLINE = new Color(91, 134, 229);
+
+    private final HabitService habitService;
+    private final Map<Long, Tile> tiles;
+    private int habitId;
+    private LocalDate createdDate;
+    private int firstYear;
+    private int lastYear;
+
+    public HeatmapPanel(HabitService habitService) {
+        this.habitService = habitService;
+        this.tiles = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+                return size() > MAX_CACHED_TILES;
+            }
+        };
+        setFont(new Font("SansSerif", Font.BOLD, 12));
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    public void setHabit(int id) {
+        HabitSummary summary = id == 0 ? null : habitService.summarizeHabit(id);
+        habitId = summary == null ? 0 : id;
+        createdDate = summary == null ? null : summary.getCreatedDate();
+        int currentYear = habitService.today().getYear();
+        lastYear = currentYear;
+        firstYear = currentYear;
+        if (createdDate != null) {
+            firstYear = Math.min(firstYear, createdDate.getYear());
+        }
+        if (summary != null && summary.getCompletedCount() > 0) {
+            LocalDate firstCompleted = habitService.getFirstCompletedDate(id);
+            if (firstCompleted != null) {
+                firstYear = Math.min(firstYear, firstCompleted.getYear());
+            }
+        }
+
+        revalidate();
+        repaint();
+    }
+
+    public void habitChanged(HabitChangeEvent event) {
+        HabitChangeEvent.Type type = event.getType();
+        if (type == HabitChangeEvent.Type.RELOADED) {
+            tiles.clear();
+        } else if (type != HabitChangeEvent.Type.DAY_CHANGED) {
+            if (event.getDate() != null) {
+                tiles.remove(tileKey(event.getHabitId(), event.getDate().getYear()));
+            } else {
+                invalidateHabit(event.getHabitId());
+            }
+        }
+
+        if (event.getHabitId() == habitId || event.getHabitId() == 0) {
+            setHabit(habitId);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int years = habitId == 0 ? 0 : lastYear - firstYear + 1;
+        return new Dimension(LABEL_WIDTH + TILE_WIDTH, Math.max(ROW_HEIGHT, years * ROW_HEIGHT));
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Rectangle clip = graphics.getClipBounds();
+        graphics.setColor(getBackground());
+        graphics.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (habitId == 0) {
+            return;
+        }
+
+        LocalDate today = habitService.today();
+        int firstRow = Math.max(0, clip.y / ROW_HEIGHT);
+        int lastRow = Math.min(lastYear - firstYear, (clip.y + clip.height) / ROW_HEIGHT);
+        for (int row = firstRow; row <= lastRow; row++) {
+            int year = lastYear - row;
+            Tile tile = tiles.get(tileKey(habitId, year));
+            if (tile == null || (tile.renderedOn.getYear() <= year && !today.equals(tile.renderedOn))) {
+                CompletionSet completions = habitService.copyCompletions(habitId,
+                    LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+                if (completions == null) {
+                    return;
+                }
+                tile = renderTile(completions, year, today);
+                tiles.put(tileKey(habitId, year), tile);
+            }
+
+            int y = row * ROW_HEIGHT;
+            graphics.setColor(Color.DARK_GRAY);
+            graphics.drawString(String.valueOf(year), 4, y + CELL_STEP + 2);
+            graphics.drawImage(tile.image, LABEL_WIDTH, y, null);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(LABEL_WIDTH + TILE_WIDTH, 2 * ROW_HEIGHT);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? CELL_STEP * 2 : CELL_STEP;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? ROW_HEIGHT : TILE_WIDTH / 4;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    private void invalidateHabit(int id) {
+        Iterator<Long> keys = tiles.keySet().iterator();
+        while (keys.hasNext()) {
+            if ((int) (keys.next() >> 32) == id) {
+                keys.remove();
+            }
+        }
+    }
+
+    private Tile renderTile(CompletionSet completions, int year, LocalDate today) {
+        BufferedImage image = new BufferedImage(TILE_WIDTH, TILE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, TILE_WIDTH, TILE_HEIGHT);
+
+            LocalDate january1 = LocalDate.of(year, 1, 1);
+            long firstDay = january1.toEpochDay();
+            long lastDay = LocalDate.of(year, 12, 31).toEpochDay();
+            long createdDay = createdDate == null ? firstDay : createdDate.toEpochDay();
+            long todayDay = today.toEpochDay();
+            int offset = january1.getDayOfWeek().getValue() - 1;
+
+            for (long day = firstDay; day <= lastDay; day++) {
+                boolean outside = day < createdDay || day > todayDay;
+                g.setColor(outside ? OUTSIDE : EMPTY);
+                fillCell(g, (int) (day - firstDay) + offset);
+            }
+
+            g.setColor(COMPLETED);
+            for (long day = completions.nextDay(firstDay); day != CompletionSet.NONE && day <= lastDay;
+                 day = completions.nextDay(day + 1)) {
+                fillCell(g, (int) (day - firstDay) + offset);
+            }
+
+            if (today.getYear() == year) {
+                int index = (int) (todayDay - firstDay) + offset;
+                g.setColor(TODAY_OUTLINE);
+                g.drawRect((index / 7) * CELL_STEP, (index % 7) * CELL_STEP, CELL_SIZE - 1, CELL_SIZE - 1);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new Tile(image, today);
+    }
+
+    private static void fillCell(Graphics2D g, int index) {
+        g.fillRect((index / 7) * CELL_STEP, (index % 7) * CELL_STEP, CELL_SIZE, CELL_SIZE);
+    }
+
+    private static long tileKey(int habitId, int year) {
+        return ((long) habitId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private static class Tile {
+        private final BufferedImage image;
+        private final LocalDate renderedOn;
+
+        private Tile(BufferedImage image, LocalDate renderedOn) {
+            this.image = image;
+            this.renderedOn = renderedOn;
+        }
+    }
+}